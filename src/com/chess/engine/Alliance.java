@@ -5,75 +5,42 @@ import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
 
+// plain fields rather than constant-specific bodies, so every call is a final field load
 public enum Alliance {
-    WHITE {
-        @Override
-        public int getDirection() {
-            return -1;
-        }
-
-        @Override
-        public int getOppositeDirection() {
-            return 1;
-        }
-
-        @Override
-        public boolean isWhite() {
-            return true;
-        }
-
-        @Override
-        public boolean isBlack() {
-            return false;
-        }
-
-        @Override
-        public boolean isPawnPromotionSquare(int position) {
-            return BoardUtils.EIGHTH_RANK[position];
-        }
-
-        @Override
-        public Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer) {
-            return whitePlayer;
-        }
-    },
-    BLACK {
-        @Override
-        public int getDirection() {
-            return 1;
-        }
-
-        @Override
-        public int getOppositeDirection() {
-            return -1;
-        }
-
-        @Override
-        public boolean isWhite() {
-            return false;
-        }
-
-        @Override
-        public boolean isBlack() {
-            return true;
-        }
-
-        @Override
-        public boolean isPawnPromotionSquare(int position) {
-            return BoardUtils.FIRST_RANK[position];
-        }
-
-        @Override
-        public Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer) {
-            return blackPlayer;
-        }
-    };
-
-    public abstract int getDirection();
-    public abstract int getOppositeDirection();
-    public abstract boolean isWhite();
-    public abstract boolean isBlack();
-    public abstract boolean isPawnPromotionSquare(int position);
-
-    public abstract Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer);
+    WHITE(-1, BoardUtils.EIGHTH_RANK),
+    BLACK(1, BoardUtils.FIRST_RANK);
+
+    private final int direction;
+    private final boolean isWhite;
+    private final boolean[] promotionRank;
+
+    Alliance(final int direction, final boolean[] promotionRank) {
+        this.direction = direction;
+        this.isWhite = direction < 0;
+        this.promotionRank = promotionRank;
+    }
+
+    public int getDirection() {
+        return this.direction;
+    }
+
+    public int getOppositeDirection() {
+        return -this.direction;
+    }
+
+    public boolean isWhite() {
+        return this.isWhite;
+    }
+
+    public boolean isBlack() {
+        return !this.isWhite;
+    }
+
+    public boolean isPawnPromotionSquare(final int position) {
+        return this.promotionRank[position];
+    }
+
+    public Player choosePlayer(final WhitePlayer whitePlayer, final BlackPlayer blackPlayer) {
+        return this.isWhite ? whitePlayer : blackPlayer;
+    }
 }
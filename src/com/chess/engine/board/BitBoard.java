@@ -0,0 +1,105 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Collection;
+
+public final class BitBoard {
+
+    private static final int NUM_ALLIANCES = Alliance.values().length;
+    private static final int NUM_PIECE_TYPES = PieceType.values().length;
+
+    public static final long[] KNIGHT_ATTACKS = initJumpAttacks(new int[][] {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+    public static final long[] KING_ATTACKS = initJumpAttacks(new int[][] {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+    public static final long[][] PAWN_ATTACKS = {
+            initJumpAttacks(new int[][] {{-1, -1}, {-1, 1}}),
+            initJumpAttacks(new int[][] {{1, -1}, {1, 1}})
+    };
+
+    private final long[][] pieceBoards;
+    private final long[] allianceOccupancy;
+    private final long occupancy;
+
+    BitBoard(final Collection<Piece> whitePieces, final Collection<Piece> blackPieces) {
+        this.pieceBoards = new long[NUM_ALLIANCES][NUM_PIECE_TYPES];
+        this.allianceOccupancy = new long[NUM_ALLIANCES];
+        placePieces(whitePieces);
+        placePieces(blackPieces);
+        this.occupancy = this.allianceOccupancy[Alliance.WHITE.ordinal()] | this.allianceOccupancy[Alliance.BLACK.ordinal()];
+    }
+
+    private void placePieces(final Collection<Piece> pieces) {
+        for (final Piece piece : pieces) {
+            final long mask = squareMask(piece.getPiecePosition());
+            this.pieceBoards[piece.getPieceAlliance().ordinal()][piece.getPieceType().ordinal()] |= mask;
+            this.allianceOccupancy[piece.getPieceAlliance().ordinal()] |= mask;
+        }
+    }
+
+    private static long[] initJumpAttacks(final int[][] rowColumnOffsets) {
+        final long[] attacks = new long[BoardUtils.NUM_TILES];
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final int row = square / BoardUtils.NUM_TILES_PER_ROW;
+            final int column = square % BoardUtils.NUM_TILES_PER_ROW;
+            for (final int[] offset : rowColumnOffsets) {
+                final int targetRow = row + offset[0];
+                final int targetColumn = column + offset[1];
+                if (targetRow >= 0 && targetRow < BoardUtils.NUM_TILES_PER_ROW
+                        && targetColumn >= 0 && targetColumn < BoardUtils.NUM_TILES_PER_ROW) {
+                    attacks[square] |= squareMask(targetRow * BoardUtils.NUM_TILES_PER_ROW + targetColumn);
+                }
+            }
+        }
+        return attacks;
+    }
+
+    public static long squareMask(final int square) {
+        return 1L << square;
+    }
+
+    public long getPieces(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceBoards[alliance.ordinal()][pieceType.ordinal()];
+    }
+
+    public long getOccupancy(final Alliance alliance) {
+        return this.allianceOccupancy[alliance.ordinal()];
+    }
+
+    public long getOccupancy() {
+        return this.occupancy;
+    }
+
+    public boolean isOccupied(final int square) {
+        return (this.occupancy & squareMask(square)) != 0;
+    }
+
+    public boolean isOccupiedBy(final int square, final Alliance alliance) {
+        return (this.allianceOccupancy[alliance.ordinal()] & squareMask(square)) != 0;
+    }
+
+    public int getPieceCount(final Alliance alliance, final PieceType pieceType) {
+        return Long.bitCount(this.pieceBoards[alliance.ordinal()][pieceType.ordinal()]);
+    }
+
+    public int getPieceCount(final Alliance alliance) {
+        return Long.bitCount(this.allianceOccupancy[alliance.ordinal()]);
+    }
+
+    public int getKingSquare(final Alliance alliance) {
+        final long kings = getPieces(alliance, PieceType.KING);
+        return kings != 0 ? Long.numberOfTrailingZeros(kings) : -1;
+    }
+
+    public boolean isSquareAttacked(final int square, final Alliance attacker) {
+        final long[] attackerPieces = this.pieceBoards[attacker.ordinal()];
+        return (PAWN_ATTACKS[1 - attacker.ordinal()][square] & attackerPieces[PieceType.PAWN.ordinal()]) != 0
+                || (KNIGHT_ATTACKS[square] & attackerPieces[PieceType.KNIGHT.ordinal()]) != 0
+                || (KING_ATTACKS[square] & attackerPieces[PieceType.KING.ordinal()]) != 0
+                || (MagicBitBoards.rookAttacks(square, this.occupancy)
+                        & (attackerPieces[PieceType.ROOK.ordinal()] | attackerPieces[PieceType.QUEEN.ordinal()])) != 0
+                || (MagicBitBoards.bishopAttacks(square, this.occupancy)
+                        & (attackerPieces[PieceType.BISHOP.ordinal()] | attackerPieces[PieceType.QUEEN.ordinal()])) != 0;
+    }
+}
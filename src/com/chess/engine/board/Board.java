@@ -2,6 +2,7 @@ package com.chess.engine.board;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.pieces.*;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.chess.engine.player.BlackPlayer;
 import com.chess.engine.player.Player;
 import com.chess.engine.player.WhitePlayer;
@@ -12,35 +13,119 @@ import java.util.*;
 
 public class Board {
 
-    private final List<Tile> gameBoard;
+    private final Piece[] gameBoard;
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
+    private final BitBoard bitBoard;
+    private final int[] material;
+    private final int[] pieceCounts;
+    private final int[] kingSquares;
 
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
 
-    private final Pawn enPassantPawn;
+    private final int enPassantSquare;
+    private final int castlingRights;
+    private final long zobristKey;
+
+    private Collection<Move> whiteStandardLegalMoves;
+    private Collection<Move> blackStandardLegalMoves;
+    // the lists above split by square, so a child board can reuse the moves of pieces its move cannot reach
+    private volatile Collection<Move>[] whiteSquareMoves;
+    private volatile Collection<Move>[] blackSquareMoves;
+    // the parent's split moves, dropped once this board has calculated its own
+    private Collection<Move>[] inheritedWhiteMoves;
+    private Collection<Move>[] inheritedBlackMoves;
+    private final long changedSquares;
+    private final long parentOccupancy;
+
+    private Board(final Builder builder, final boolean copyArrays) {
+        this.gameBoard = copyArrays ? builder.boardConfig.clone() : builder.boardConfig;
+        this.material = copyArrays ? builder.material.clone() : builder.material;
+        this.pieceCounts = copyArrays ? builder.pieceCounts.clone() : builder.pieceCounts;
+        this.kingSquares = copyArrays ? builder.kingSquares.clone() : builder.kingSquares;
+        final ImmutableList.Builder<Piece> whitePieces = ImmutableList.builder();
+        final ImmutableList.Builder<Piece> blackPieces = ImmutableList.builder();
+        for (final Piece piece : this.gameBoard) {
+            if (piece != null) {
+                (piece.getPieceAlliance().isWhite() ? whitePieces : blackPieces).add(piece);
+            }
+        }
+        this.whitePieces = whitePieces.build();
+        this.blackPieces = blackPieces.build();
+        this.bitBoard = new BitBoard(this.whitePieces, this.blackPieces);
+        this.enPassantSquare = builder.enPassantSquare;
+        if (builder.castlingRights == Builder.NOT_SET) {
+            this.castlingRights = BoardUtils.calculateCastlingRights(this);
+            this.zobristKey = calculateZobristKey(builder.nextMoveMaker);
+        } else {
+            this.castlingRights = builder.castlingRights;
+            this.zobristKey = builder.zobristKey;
+        }
+        final Board parent = builder.parent;
+        if (parent != null) {
+            this.inheritedWhiteMoves = parent.whiteSquareMoves;
+            this.inheritedBlackMoves = parent.blackSquareMoves;
+            this.parentOccupancy = parent.bitBoard.getOccupancy();
+            // a pawn's en passant capture comes and goes with the square, so both squares count as changed
+            this.changedSquares = builder.changedSquares
+                    | enPassantMask(parent.enPassantSquare)
+                    | enPassantMask(this.enPassantSquare);
+        } else {
+            this.parentOccupancy = 0L;
+            this.changedSquares = ~0L;
+        }
 
-    private Board(final Builder builder) {
-        this.gameBoard = createGameBoard(builder);
-        this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
-        this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
-        this.enPassantPawn = builder.enPassantPawn;
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
+        currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+    }
 
-        final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-        final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Board)) {
+            return false;
+        }
+        final Board otherBoard = (Board) other;
+        // the key rejects almost every unequal pair; the rest rules out key collisions
+        return this.zobristKey == otherBoard.zobristKey
+                && this.castlingRights == otherBoard.castlingRights
+                && this.enPassantSquare == otherBoard.enPassantSquare
+                && this.currentPlayer.getAlliance() == otherBoard.currentPlayer.getAlliance()
+                && hasSamePieces(otherBoard);
+    }
 
-        this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
-        currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+    // compares what stands on each square, not whether the pieces have moved before
+    private boolean hasSamePieces(final Board other) {
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = this.gameBoard[square];
+            final Piece otherPiece = other.gameBoard[square];
+            if (piece == null || otherPiece == null) {
+                if (piece != otherPiece) {
+                    return false;
+                }
+            } else if (piece.getPieceType() != otherPiece.getPieceType()
+                    || piece.getPieceAlliance() != otherPiece.getPieceAlliance()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.zobristKey);
     }
 
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
         for(int i = 0; i < BoardUtils.NUM_TILES; ++i) {
-            final String tileText = this.gameBoard.get(i).toString();
+            final String tileText = getTile(i).toString();
             builder.append(String.format("%3s", tileText));
             if((i+1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
                 builder.append("\n");
@@ -69,76 +154,169 @@ public class Board {
         return this.currentPlayer;
     }
 
-    public Pawn getEnPassantPawn() { return this.enPassantPawn; }
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
 
-    private Collection<Move> calculateLegalMoves(Collection<Piece> pieces) {
+    // the pawn that just jumped sits one rank past the en passant square, towards its own side
+    public Pawn getEnPassantPawn() {
+        if (this.enPassantSquare == Position.EMPTY) {
+            return null;
+        }
+        return (Pawn) this.gameBoard[this.enPassantSquare + (BoardUtils.THIRD_RANK[this.enPassantSquare]
+                ? -BoardUtils.NUM_TILES_PER_ROW
+                : BoardUtils.NUM_TILES_PER_ROW)];
+    }
 
-        final List<Move> legalMoves = new ArrayList<>();
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
 
-        for(final Piece piece : pieces) {
-            legalMoves.addAll(piece.calculateLegalMoves(this));
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    public int getMaterial(final Alliance alliance) {
+        return this.material[alliance.ordinal()];
+    }
+
+    public int getPieceCount(final Alliance alliance, final PieceType pieceType) {
+        return this.pieceCounts[Builder.pieceIndex(alliance, pieceType)];
+    }
+
+    public int getKingSquare(final Alliance alliance) {
+        return this.kingSquares[alliance.ordinal()];
+    }
+
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    public Collection<Move> getWhiteStandardLegalMoves() {
+        Collection<Move> standardLegalMoves = this.whiteStandardLegalMoves;
+        if (standardLegalMoves == null) {
+            final Collection<Move>[] squareMoves = calculateSquareMoves(this.whitePieces, this.inheritedWhiteMoves);
+            standardLegalMoves = calculateLegalMoves(this.whitePieces, squareMoves);
+            this.whiteSquareMoves = squareMoves;
+            this.inheritedWhiteMoves = null;
+            this.whiteStandardLegalMoves = standardLegalMoves;
         }
-        return ImmutableList.copyOf(legalMoves);
+        return standardLegalMoves;
     }
 
-    private static Collection<Piece> calculateActivePieces(List<Tile> gameBoard, Alliance alliance) {
-        final List<Piece> activePieces = new ArrayList<>();
+    public Collection<Move> getBlackStandardLegalMoves() {
+        Collection<Move> standardLegalMoves = this.blackStandardLegalMoves;
+        if (standardLegalMoves == null) {
+            final Collection<Move>[] squareMoves = calculateSquareMoves(this.blackPieces, this.inheritedBlackMoves);
+            standardLegalMoves = calculateLegalMoves(this.blackPieces, squareMoves);
+            this.blackSquareMoves = squareMoves;
+            this.inheritedBlackMoves = null;
+            this.blackStandardLegalMoves = standardLegalMoves;
+        }
+        return standardLegalMoves;
+    }
 
-        for (final Tile tile : gameBoard) {
-            if(tile.isTileOccupied()) {
-                final Piece piece = tile.getPiece();
-                if(piece.getPieceAlliance() == alliance) {
-                    activePieces.add(piece);
-                }
+    private static Collection<Move> calculateLegalMoves(final Collection<Piece> pieces, final Collection<Move>[] squareMoves) {
+        final ImmutableList.Builder<Move> legalMoves = ImmutableList.builder();
+        for (final Piece piece : pieces) {
+            legalMoves.addAll(squareMoves[piece.getPiecePosition()]);
+        }
+        return legalMoves.build();
+    }
+
+    // only pieces whose reach the last move touched are regenerated, the rest keep the parent's moves
+    private Collection<Move>[] calculateSquareMoves(final Collection<Piece> pieces, final Collection<Move>[] inheritedMoves) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Collection<Move>[] squareMoves = new Collection[BoardUtils.NUM_TILES];
+        for (final Piece piece : pieces) {
+            final int square = piece.getPiecePosition();
+            if (inheritedMoves != null
+                    && inheritedMoves[square] != null
+                    && (this.changedSquares & (BitBoard.squareMask(square) | calculateReach(piece, this.parentOccupancy))) == 0) {
+                squareMoves[square] = inheritedMoves[square];
+            } else {
+                squareMoves[square] = piece.calculateLegalMoves(this);
             }
         }
-        return ImmutableList.copyOf(activePieces);
+        return squareMoves;
+    }
+
+    // every square whose contents can change the piece's moves: its targets, including the first blocker of each ray
+    private static long calculateReach(final Piece piece, final long occupancy) {
+        final int square = piece.getPiecePosition();
+        switch (piece.getPieceType()) {
+            case PAWN:
+                final int direction = piece.getPieceAlliance().getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+                long reach = BitBoard.PAWN_ATTACKS[piece.getPieceAlliance().ordinal()][square];
+                for (int push = square + direction, i = 0; i < 2 && BoardUtils.isValidTileCoordinate(push); push += direction, i++) {
+                    reach |= BitBoard.squareMask(push);
+                }
+                return reach;
+            case KNIGHT:
+                return BitBoard.KNIGHT_ATTACKS[square];
+            case BISHOP:
+                return MagicBitBoards.bishopAttacks(square, occupancy);
+            case ROOK:
+                return MagicBitBoards.rookAttacks(square, occupancy);
+            case QUEEN:
+                return MagicBitBoards.queenAttacks(square, occupancy);
+            case KING:
+                return BitBoard.KING_ATTACKS[square];
+            default:
+                throw new RuntimeException("Unknown piece type " + piece.getPieceType());
+        }
+    }
+
+    private static long enPassantMask(final int enPassantSquare) {
+        return enPassantSquare == Position.EMPTY ? 0L : BitBoard.squareMask(enPassantSquare);
     }
 
-    private static List<Tile> createGameBoard(final Builder builder) {
-        final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
-        for(int i = 0; i < BoardUtils.NUM_TILES; i++) {
-            tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
+    private long calculateZobristKey(final Alliance nextMoveMaker) {
+        long zobristKey = Zobrist.sideKey(nextMoveMaker)
+                ^ Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.enPassantSquare);
+        for (final Piece piece : Iterables.concat(this.whitePieces, this.blackPieces)) {
+            zobristKey ^= Zobrist.pieceKey(piece);
         }
-        return ImmutableList.copyOf(tiles);
+        return zobristKey;
     }
 
     public static Board createStandardBoard() {
         final Builder builder = new Builder();
         // Black Layout
-        builder.setPiece(new Rook(Alliance.BLACK, 0));
-        builder.setPiece(new Knight(Alliance.BLACK, 1));
-        builder.setPiece(new Bishop(Alliance.BLACK, 2));
-        builder.setPiece(new Queen(Alliance.BLACK, 3));
-        builder.setPiece(new King(Alliance.BLACK, 4));
-        builder.setPiece(new Bishop(Alliance.BLACK, 5));
-        builder.setPiece(new Knight(Alliance.BLACK, 6));
-        builder.setPiece(new Rook(Alliance.BLACK, 7));
-        builder.setPiece(new Pawn(Alliance.BLACK, 8));
-        builder.setPiece(new Pawn(Alliance.BLACK, 9));
-        builder.setPiece(new Pawn(Alliance.BLACK, 10));
-        builder.setPiece(new Pawn(Alliance.BLACK, 11));
-        builder.setPiece(new Pawn(Alliance.BLACK, 12));
-        builder.setPiece(new Pawn(Alliance.BLACK, 13));
-        builder.setPiece(new Pawn(Alliance.BLACK, 14));
-        builder.setPiece(new Pawn(Alliance.BLACK, 15));
+        builder.setPiece(Rook.create(Alliance.BLACK, 0));
+        builder.setPiece(Knight.create(Alliance.BLACK, 1));
+        builder.setPiece(Bishop.create(Alliance.BLACK, 2));
+        builder.setPiece(Queen.create(Alliance.BLACK, 3));
+        builder.setPiece(King.create(Alliance.BLACK, 4));
+        builder.setPiece(Bishop.create(Alliance.BLACK, 5));
+        builder.setPiece(Knight.create(Alliance.BLACK, 6));
+        builder.setPiece(Rook.create(Alliance.BLACK, 7));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 8));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 9));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 10));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 11));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 12));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 13));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 14));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 15));
         // White Layout
-        builder.setPiece(new Pawn(Alliance.WHITE, 48));
-        builder.setPiece(new Pawn(Alliance.WHITE, 49));
-        builder.setPiece(new Pawn(Alliance.WHITE, 50));
-        builder.setPiece(new Pawn(Alliance.WHITE, 51));
-        builder.setPiece(new Pawn(Alliance.WHITE, 52));
-        builder.setPiece(new Pawn(Alliance.WHITE, 53));
-        builder.setPiece(new Pawn(Alliance.WHITE, 54));
-        builder.setPiece(new Pawn(Alliance.WHITE, 55));
-        builder.setPiece(new Rook(Alliance.WHITE, 56));
-        builder.setPiece(new Knight(Alliance.WHITE, 57));
-        builder.setPiece(new Bishop(Alliance.WHITE, 58));
-        builder.setPiece(new Queen(Alliance.WHITE, 59));
-        builder.setPiece(new King(Alliance.WHITE, 60));
-        builder.setPiece(new Bishop(Alliance.WHITE, 61));
-        builder.setPiece(new Knight(Alliance.WHITE, 62));
-        builder.setPiece(new Rook(Alliance.WHITE, 63));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 48));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 49));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 50));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 51));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 52));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 53));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 54));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 55));
+        builder.setPiece(Rook.create(Alliance.WHITE, 56));
+        builder.setPiece(Knight.create(Alliance.WHITE, 57));
+        builder.setPiece(Bishop.create(Alliance.WHITE, 58));
+        builder.setPiece(Queen.create(Alliance.WHITE, 59));
+        builder.setPiece(King.create(Alliance.WHITE, 60));
+        builder.setPiece(Bishop.create(Alliance.WHITE, 61));
+        builder.setPiece(Knight.create(Alliance.WHITE, 62));
+        builder.setPiece(Rook.create(Alliance.WHITE, 63));
         //white to move
         builder.setMoveMaker(Alliance.WHITE);
         //build the board
@@ -148,41 +326,41 @@ public class Board {
     public static Board create_test_board() {
         final Builder builder = new Builder();
         // Black Layout
-        builder.setPiece(new Rook(Alliance.BLACK, 0));
-        builder.setPiece(new King(Alliance.BLACK, 4));
-        builder.setPiece(new Rook(Alliance.BLACK, 7));
-        builder.setPiece(new Pawn(Alliance.BLACK, 8));
-        builder.setPiece(new Pawn(Alliance.BLACK, 10));
-        builder.setPiece(new Pawn(Alliance.BLACK, 11));
-        builder.setPiece(new Queen(Alliance.BLACK, 12, false));
-        builder.setPiece(new Pawn(Alliance.BLACK, 13));
-        builder.setPiece(new Bishop(Alliance.BLACK, 14, false));
-        builder.setPiece(new Bishop(Alliance.BLACK, 16, false));
-        builder.setPiece(new Knight(Alliance.BLACK, 17, false));
-        builder.setPiece(new Pawn(Alliance.BLACK, 20, false));
-        builder.setPiece(new Knight(Alliance.BLACK, 21));
-        builder.setPiece(new Pawn(Alliance.BLACK, 22, false));
-
-        builder.setPiece(new Pawn(Alliance.WHITE, 27, false));
-        builder.setPiece(new Knight(Alliance.WHITE, 28, false));
-        builder.setPiece(new Pawn(Alliance.BLACK, 33, false));
-        builder.setPiece(new Pawn(Alliance.WHITE, 36, false));
-        builder.setPiece(new Knight(Alliance.WHITE, 42, false));
-        builder.setPiece(new Queen(Alliance.WHITE, 45, false));
-        builder.setPiece(new Pawn(Alliance.BLACK, 47, false));
+        builder.setPiece(Rook.create(Alliance.BLACK, 0));
+        builder.setPiece(King.create(Alliance.BLACK, 4));
+        builder.setPiece(Rook.create(Alliance.BLACK, 7));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 8));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 10));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 11));
+        builder.setPiece(Queen.create(Alliance.BLACK, 12, false));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 13));
+        builder.setPiece(Bishop.create(Alliance.BLACK, 14, false));
+        builder.setPiece(Bishop.create(Alliance.BLACK, 16, false));
+        builder.setPiece(Knight.create(Alliance.BLACK, 17, false));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 20, false));
+        builder.setPiece(Knight.create(Alliance.BLACK, 21));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 22, false));
+
+        builder.setPiece(Pawn.create(Alliance.WHITE, 27, false));
+        builder.setPiece(Knight.create(Alliance.WHITE, 28, false));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 33, false));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 36, false));
+        builder.setPiece(Knight.create(Alliance.WHITE, 42, false));
+        builder.setPiece(Queen.create(Alliance.WHITE, 45, false));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 47, false));
         // White Layout
 
-        builder.setPiece(new Pawn(Alliance.WHITE, 48));
-        builder.setPiece(new Pawn(Alliance.WHITE, 49));
-        builder.setPiece(new Pawn(Alliance.WHITE, 50));
-        builder.setPiece(new Bishop(Alliance.WHITE, 51, false));
-        builder.setPiece(new Bishop(Alliance.WHITE, 52, false));
-        builder.setPiece(new Pawn(Alliance.WHITE, 53));
-        builder.setPiece(new Pawn(Alliance.WHITE, 54));
-        builder.setPiece(new Pawn(Alliance.WHITE, 55));
-        builder.setPiece(new Rook(Alliance.WHITE, 56));
-        builder.setPiece(new King(Alliance.WHITE, 60));
-        builder.setPiece(new Rook(Alliance.WHITE, 63));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 48));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 49));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 50));
+        builder.setPiece(Bishop.create(Alliance.WHITE, 51, false));
+        builder.setPiece(Bishop.create(Alliance.WHITE, 52, false));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 53));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 54));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 55));
+        builder.setPiece(Rook.create(Alliance.WHITE, 56));
+        builder.setPiece(King.create(Alliance.WHITE, 60));
+        builder.setPiece(Rook.create(Alliance.WHITE, 63));
         //white to move
         builder.setMoveMaker(Alliance.WHITE);
         //build the board
@@ -191,24 +369,29 @@ public class Board {
 
     public static Board create_test_board_3() {
         final Builder builder = new Builder();
-        builder.setPiece(new Pawn(Alliance.BLACK, 10));
-        builder.setPiece(new Pawn(Alliance.BLACK, 19, false));
-        builder.setPiece(new King(Alliance.WHITE, 24, false));
-        builder.setPiece(new Pawn(Alliance.WHITE, 25, false));
-        builder.setPiece(new Rook(Alliance.BLACK, 31, false));
-        builder.setPiece(new Rook(Alliance.WHITE, 33, false));
-        builder.setPiece(new Pawn(Alliance.BLACK, 37, false));
-        builder.setPiece(new King(Alliance.BLACK, 39, false));
-        builder.setPiece(new Pawn(Alliance.WHITE, 52));
-        builder.setPiece(new Pawn(Alliance.WHITE, 54));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 10));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 19, false));
+        builder.setPiece(King.create(Alliance.WHITE, 24, false));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 25, false));
+        builder.setPiece(Rook.create(Alliance.BLACK, 31, false));
+        builder.setPiece(Rook.create(Alliance.WHITE, 33, false));
+        builder.setPiece(Pawn.create(Alliance.BLACK, 37, false));
+        builder.setPiece(King.create(Alliance.BLACK, 39, false));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 52));
+        builder.setPiece(Pawn.create(Alliance.WHITE, 54));
         //white to move
         builder.setMoveMaker(Alliance.WHITE);
         //build the board
         return builder.build();
     }
 
+    // tiles are only built for callers that still want them, the engine reads squares directly
     public Tile getTile(final int tileCoordinate) {
-        return gameBoard.get(tileCoordinate);
+        return Tile.createTile(tileCoordinate, this.gameBoard[tileCoordinate]);
+    }
+
+    public Piece getPiece(final int tileCoordinate) {
+        return this.gameBoard[tileCoordinate];
     }
 
     public Iterable<Move> getAllLegalMoves() {
@@ -217,31 +400,110 @@ public class Board {
 
     public static class Builder {
 
-        Map<Integer, Piece> boardConfig;
+        static final int NOT_SET = -1;
+        static final int NO_KING = -1;
+
+        private static final int NUM_PIECE_TYPES = PieceType.values().length;
+
+        final Piece[] boardConfig;
+        // material, piece counts and king squares follow every write instead of being recounted per board
+        final int[] material;
+        final int[] pieceCounts;
+        final int[] kingSquares;
         Alliance nextMoveMaker;
-        Pawn enPassantPawn;
+        int enPassantSquare = Position.EMPTY;
+        int castlingRights = NOT_SET;
+        long zobristKey;
+        // set when seeded from a parent, so the board can carry the parent's moves forward
+        Board parent;
+        long changedSquares;
 
         public Builder() {
-            boardConfig = new HashMap<>();
+            this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+            this.material = new int[Alliance.values().length];
+            this.pieceCounts = new int[Alliance.values().length * NUM_PIECE_TYPES];
+            this.kingSquares = new int[] {NO_KING, NO_KING};
+        }
+
+        // seeds a child board with the parent's squares so a move only has to write its delta
+        Builder(final Board parent) {
+            this.parent = parent;
+            this.boardConfig = parent.gameBoard.clone();
+            this.material = parent.material.clone();
+            this.pieceCounts = parent.pieceCounts.clone();
+            this.kingSquares = parent.kingSquares.clone();
         }
 
         public Builder setPiece(final Piece piece) {
-            this.boardConfig.put(piece.getPiecePosition(), piece);
+            final int tileCoordinate = piece.getPiecePosition();
+            removeFromTotals(this.boardConfig[tileCoordinate]);
+            this.boardConfig[tileCoordinate] = piece;
+            this.changedSquares |= BitBoard.squareMask(tileCoordinate);
+            addToTotals(piece);
+            return this;
+        }
+
+        Builder clearPiece(final int tileCoordinate) {
+            removeFromTotals(this.boardConfig[tileCoordinate]);
+            this.boardConfig[tileCoordinate] = null;
+            this.changedSquares |= BitBoard.squareMask(tileCoordinate);
             return this;
         }
 
+        private void addToTotals(final Piece piece) {
+            final int alliance = piece.getPieceAlliance().ordinal();
+            this.material[alliance] += piece.getPieceValue();
+            this.pieceCounts[pieceIndex(piece.getPieceAlliance(), piece.getPieceType())]++;
+            if (piece.getPieceType().isKing()) {
+                this.kingSquares[alliance] = piece.getPiecePosition();
+            }
+        }
+
+        private void removeFromTotals(final Piece piece) {
+            if (piece == null) {
+                return;
+            }
+            final int alliance = piece.getPieceAlliance().ordinal();
+            this.material[alliance] -= piece.getPieceValue();
+            this.pieceCounts[pieceIndex(piece.getPieceAlliance(), piece.getPieceType())]--;
+            if (piece.getPieceType().isKing() && this.kingSquares[alliance] == piece.getPiecePosition()) {
+                this.kingSquares[alliance] = NO_KING;
+            }
+        }
+
+        static int pieceIndex(final Alliance alliance, final PieceType pieceType) {
+            return alliance.ordinal() * NUM_PIECE_TYPES + pieceType.ordinal();
+        }
+
+        public Piece getPiece(final int tileCoordinate) {
+            return this.boardConfig[tileCoordinate];
+        }
+
         public Builder setMoveMaker(final Alliance nextMoveMaker) {
             this.nextMoveMaker = nextMoveMaker;
             return this;
         }
 
+        // copies the arrays, so the builder can keep being written without touching the board
         public Board build() {
+            return new Board(this, true);
+        }
 
-            return new Board(this);
+        // hands the arrays to the board as they are; only for builders that are dropped right after
+        Board buildAndDiscard() {
+            return new Board(this, false);
         }
 
-        public void setEnPassantPawn(Pawn enPassantPawn) {
-            this.enPassantPawn = enPassantPawn;
+        public Builder setEnPassantSquare(final int enPassantSquare) {
+            this.enPassantSquare = enPassantSquare;
+            return this;
+        }
+
+        // moves hand over the key they updated, boards built any other way hash from scratch
+        Builder setZobristKey(final long zobristKey, final int castlingRights) {
+            this.zobristKey = zobristKey;
+            this.castlingRights = castlingRights;
+            return this;
         }
     }
 }
@@ -1,7 +1,11 @@
 package com.chess.engine.board;
 
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.google.common.collect.ImmutableMap;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +25,13 @@ public class BoardUtils {
     public static final boolean[] SECOND_RANK = initRow(6);
     public static final boolean[] FIRST_RANK = initRow(7);
 
+    public static final int WHITE_KING_SIDE_CASTLE = 1;
+    public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+    public static final int BLACK_KING_SIDE_CASTLE = 4;
+    public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+    // the castling rights that survive a move from or to each square
+    public static final int[] CASTLING_RIGHTS_MASK = initCastlingRightsMask();
+
     public static final String[] ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
 
     private static String[] initializeAlgebraicNotation() {
@@ -86,4 +97,34 @@ public class BoardUtils {
     public static String getPositionAtCoordinate(final int coordinate) {
         return ALGEBRAIC_NOTATION[coordinate];
     }
+
+    public static int calculateCastlingRights(final Board board) {
+        int castlingRights = 0;
+        if (isUnmoved(board, 60, PieceType.KING, Alliance.WHITE)) {
+            castlingRights |= isUnmoved(board, 63, PieceType.ROOK, Alliance.WHITE) ? WHITE_KING_SIDE_CASTLE : 0;
+            castlingRights |= isUnmoved(board, 56, PieceType.ROOK, Alliance.WHITE) ? WHITE_QUEEN_SIDE_CASTLE : 0;
+        }
+        if (isUnmoved(board, 4, PieceType.KING, Alliance.BLACK)) {
+            castlingRights |= isUnmoved(board, 7, PieceType.ROOK, Alliance.BLACK) ? BLACK_KING_SIDE_CASTLE : 0;
+            castlingRights |= isUnmoved(board, 0, PieceType.ROOK, Alliance.BLACK) ? BLACK_QUEEN_SIDE_CASTLE : 0;
+        }
+        return castlingRights;
+    }
+
+    private static boolean isUnmoved(final Board board, final int square, final PieceType pieceType, final Alliance alliance) {
+        final Piece piece = board.getPiece(square);
+        return piece != null && piece.getPieceType() == pieceType && piece.getPieceAlliance() == alliance && piece.isFirstMove();
+    }
+
+    private static int[] initCastlingRightsMask() {
+        final int[] castlingRightsMask = new int[BoardUtils.NUM_TILES];
+        Arrays.fill(castlingRightsMask, WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE | BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        castlingRightsMask[60] &= ~(WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE);
+        castlingRightsMask[63] &= ~WHITE_KING_SIDE_CASTLE;
+        castlingRightsMask[56] &= ~WHITE_QUEEN_SIDE_CASTLE;
+        castlingRightsMask[4] &= ~(BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+        castlingRightsMask[7] &= ~BLACK_KING_SIDE_CASTLE;
+        castlingRightsMask[0] &= ~BLACK_QUEEN_SIDE_CASTLE;
+        return castlingRightsMask;
+    }
 }
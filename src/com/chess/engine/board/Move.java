@@ -8,38 +8,47 @@ import static com.chess.engine.board.Board.*;
 
 public abstract class Move {
 
-    protected final Board board;
+    // execute, equals and the predicates switch on this code instead of dispatching through the subclasses
+    static final int MAJOR_MOVE = 0;
+    static final int MAJOR_ATTACK_MOVE = 1;
+    static final int PAWN_MOVE = 2;
+    static final int PAWN_ATTACK_MOVE = 3;
+    static final int PAWN_EN_PASSANT_ATTACK_MOVE = 4;
+    static final int PAWN_JUMP = 5;
+    static final int PAWN_PROMOTION = 6;
+    static final int KING_SIDE_CASTLE_MOVE = 7;
+    static final int QUEEN_SIDE_CASTLE_MOVE = 8;
+    static final int NULL_MOVE_TYPE = 9;
+
+    protected final int moveType;
     protected final Piece movedPiece;
     protected final int destinationCoordinate;
+    protected final Piece attackedPiece;
     protected final boolean isFirstMove;
 
     public static final Move NULL_MOVE = new NullMove();
 
-    private Move(final Board board, final Piece movedPiece, final int destinationCoordinate) {
-        this.board = board;
-        this.movedPiece= movedPiece;
+    private Move(final int moveType, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
+        this.moveType = moveType;
+        this.movedPiece = movedPiece;
         this.destinationCoordinate = destinationCoordinate;
-        this.isFirstMove = movedPiece.isFirstMove();
-    }
-
-    private Move(final Board board, final int destinationCoordinate) {
-        this.board = board;
-        this.destinationCoordinate = destinationCoordinate;
-        this.movedPiece = null;
-        this.isFirstMove = false;
+        this.attackedPiece = attackedPiece;
+        this.isFirstMove = movedPiece != null && movedPiece.isFirstMove();
     }
 
     @Override
-    public int hashCode() {
+    public final int hashCode() {
         final int prime = 31;
-        int result = 1;
+        int result = this.moveType;
         result = prime * result + this.destinationCoordinate;
-        result = prime * result + this.movedPiece.hashCode();
+        result = prime * result + (this.movedPiece != null ? this.movedPiece.hashCode() : 0);
+        result = prime * result + (this.attackedPiece != null ? this.attackedPiece.hashCode() : 0);
         return result;
     }
 
+    // pieces are interned, and a king plus destination already pins down the castling rook
     @Override
-    public boolean equals(final Object other) {
+    public final boolean equals(final Object other) {
         if (this == other) {
             return true;
         }
@@ -48,59 +57,99 @@ public abstract class Move {
         }
 
         final Move otherMove = (Move) other;
-        return getDestinationCoordinate() == otherMove.getDestinationCoordinate() &&
-                getMovedPiece().equals(otherMove.getMovedPiece());
+        return this.moveType == otherMove.moveType &&
+                this.destinationCoordinate == otherMove.destinationCoordinate &&
+                this.movedPiece == otherMove.movedPiece &&
+                this.attackedPiece == otherMove.attackedPiece;
     }
 
-    public int getCurrentCoordinate() {
-        return this.getMovedPiece().getPiecePosition();
+    public final int getCurrentCoordinate() {
+        return this.movedPiece != null ? this.movedPiece.getPiecePosition() : -1;
     }
 
-    public int getDestinationCoordinate() {
+    public final int getDestinationCoordinate() {
         return this.destinationCoordinate;
     }
 
-    public Piece getMovedPiece() {
+    public final Piece getMovedPiece() {
         return this.movedPiece;
     }
 
-    public boolean isAttack() {
-        return false;
+    public final boolean isAttack() {
+        return this.attackedPiece != null;
     }
 
-    public boolean isCastlingMove() {
-        return false;
+    public final boolean isCastlingMove() {
+        return this.moveType == KING_SIDE_CASTLE_MOVE || this.moveType == QUEEN_SIDE_CASTLE_MOVE;
     }
 
-    public Piece getAttackedPiece() {
-        return null;
+    public final Piece getAttackedPiece() {
+        return this.attackedPiece;
     }
 
-    public Board getBoard() { return board; }
-
-    public Board execute() {
-        final Builder builder = new Builder();
-        for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-            if(!this.movedPiece.equals(piece)) {
-                builder.setPiece(piece);
-            }
-        }
-        for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-            builder.setPiece(piece);
+    public final Board execute(final Board board) {
+        if (this.moveType == NULL_MOVE_TYPE) {
+            throw new RuntimeException("Can't execute null");
         }
-        builder.setPiece(this.movedPiece.movePiece(this));
-        builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
-        return builder.build();
+        final Builder builder = new Builder(board);
+        builder.clearPiece(getCurrentCoordinate());
+        final Piece movedPieceAfterMove;
+        long castleRookKeys = 0L;
+        switch (this.moveType) {
+            case PAWN_EN_PASSANT_ATTACK_MOVE:
+                builder.clearPiece(this.attackedPiece.getPiecePosition());
+                movedPieceAfterMove = this.movedPiece.movePiece(this);
+                break;
+            case PAWN_JUMP:
+                // the square the pawn jumped over
+                builder.setEnPassantSquare((getCurrentCoordinate() + this.destinationCoordinate) / 2);
+                movedPieceAfterMove = this.movedPiece.movePiece(this);
+                break;
+            case PAWN_PROMOTION:
+                movedPieceAfterMove = ((Pawn) this.movedPiece).getPromotionPiece().movePiece(this);
+                break;
+            case KING_SIDE_CASTLE_MOVE:
+            case QUEEN_SIDE_CASTLE_MOVE:
+                final CastleMove castleMove = (CastleMove) this;
+                builder.clearPiece(castleMove.castleRookStart);
+                final Rook castledRook = Rook.create(castleMove.castleRook.getPieceAlliance(), castleMove.castleRookDestination, false);
+                builder.setPiece(castledRook);
+                castleRookKeys = Zobrist.pieceKey(castleMove.castleRook) ^ Zobrist.pieceKey(castledRook);
+                movedPieceAfterMove = this.movedPiece.movePiece(this);
+                break;
+            default:
+                movedPieceAfterMove = this.movedPiece.movePiece(this);
+                break;
+        }
+        builder.setPiece(movedPieceAfterMove);
+        builder.setMoveMaker(board.getCurrentPlayer().getOpponent().getAlliance());
+        updateZobristKey(board, builder, movedPieceAfterMove);
+        builder.zobristKey ^= castleRookKeys;
+        return builder.buildAndDiscard();
     }
 
-    public static final class MajorMove extends Move {
-        public MajorMove(final Board board, final Piece movedPiece, final int destinationCoordinate) {
-            super(board, movedPiece, destinationCoordinate);
-        }
+    // XORs this move's changes into the parent's key instead of hashing the new board from scratch
+    private void updateZobristKey(final Board board, final Builder builder, final Piece movedPieceAfterMove) {
+        final int castlingRights = board.getCastlingRights()
+                & BoardUtils.CASTLING_RIGHTS_MASK[getCurrentCoordinate()]
+                & BoardUtils.CASTLING_RIGHTS_MASK[this.destinationCoordinate];
+        long zobristKey = board.getZobristKey()
+                ^ Zobrist.pieceKey(this.movedPiece)
+                ^ Zobrist.pieceKey(movedPieceAfterMove)
+                ^ Zobrist.blackToMoveKey()
+                ^ Zobrist.castlingKey(board.getCastlingRights())
+                ^ Zobrist.castlingKey(castlingRights)
+                ^ Zobrist.enPassantKey(board.getEnPassantSquare())
+                ^ Zobrist.enPassantKey(builder.enPassantSquare);
+        if (isAttack()) {
+            zobristKey ^= Zobrist.pieceKey(this.attackedPiece);
+        }
+        builder.setZobristKey(zobristKey, castlingRights);
+    }
 
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof MajorMove && super.equals(other);
+    public static final class MajorMove extends Move {
+        public MajorMove(final Piece movedPiece, final int destinationCoordinate) {
+            super(MAJOR_MOVE, movedPiece, destinationCoordinate, null);
         }
 
         @Override
@@ -110,49 +159,14 @@ public abstract class Move {
     }
 
     public static class AttackMove extends Move {
-        final Piece attackedPiece;
-
-        public AttackMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
-            super(board, movedPiece, destinationCoordinate);
-            this.attackedPiece = attackedPiece;
-        }
-
-        @Override
-        public int hashCode() {
-            return this.attackedPiece.hashCode() + super.hashCode();
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            if(this == other) {
-                return true;
-            }
-            if(!(other instanceof AttackMove)) {
-                return false;
-            }
-            final AttackMove otherAttackMove = (AttackMove) other;
-            return super.equals(otherAttackMove) && getAttackedPiece().equals(otherAttackMove.getAttackedPiece());
-        }
-
-        @Override
-        public boolean isAttack() {
-            return true;
-        }
-
-        @Override
-        public Piece getAttackedPiece() {
-            return this.attackedPiece;
+        AttackMove(final int moveType, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
+            super(moveType, movedPiece, destinationCoordinate, attackedPiece);
         }
     }
 
     public static class MajorAttackMove extends AttackMove {
-        public MajorAttackMove(final Board board, final Piece pieceMoved, final int destinationCoordinate, final Piece pieceAttacked) {
-            super(board, pieceMoved, destinationCoordinate, pieceAttacked);
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof MajorAttackMove && super.equals(other);
+        public MajorAttackMove(final Piece pieceMoved, final int destinationCoordinate, final Piece pieceAttacked) {
+            super(MAJOR_ATTACK_MOVE, pieceMoved, destinationCoordinate, pieceAttacked);
         }
 
         @Override
@@ -162,13 +176,8 @@ public abstract class Move {
     }
 
     public static final class PawnMove extends Move {
-        public PawnMove(final Board board, final Piece movedPiece, final int destinationCoordinate) {
-            super(board, movedPiece, destinationCoordinate);
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof  PawnMove && super.equals(other);
+        public PawnMove(final Piece movedPiece, final int destinationCoordinate) {
+            super(PAWN_MOVE, movedPiece, destinationCoordinate, null);
         }
 
         @Override
@@ -179,13 +188,12 @@ public abstract class Move {
 
     public static class PawnAttackMove extends AttackMove {
 
-        public PawnAttackMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
-            super(board, movedPiece, destinationCoordinate, attackedPiece);
+        public PawnAttackMove(final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
+            this(PAWN_ATTACK_MOVE, movedPiece, destinationCoordinate, attackedPiece);
         }
 
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof  PawnAttackMove && super.equals(other);
+        PawnAttackMove(final int moveType, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
+            super(moveType, movedPiece, destinationCoordinate, attackedPiece);
         }
 
         @Override
@@ -197,55 +205,14 @@ public abstract class Move {
 
     public static final class PawnEnPassantAttackMove extends PawnAttackMove {
 
-        public PawnEnPassantAttackMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
-            super(board, movedPiece, destinationCoordinate, attackedPiece);
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnEnPassantAttackMove && super.equals(other);
-        }
-
-        @Override
-        public Board execute() {
-            final Builder builder = new Builder();
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-                if (piece != this.getAttackedPiece()) {
-                    builder.setPiece(piece);
-                }
-            }
-            builder.setPiece(this.movedPiece.movePiece(this));
-            builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
-            return builder.build();
+        public PawnEnPassantAttackMove(final Piece movedPiece, final int destinationCoordinate, final Piece attackedPiece) {
+            super(PAWN_EN_PASSANT_ATTACK_MOVE, movedPiece, destinationCoordinate, attackedPiece);
         }
     }
 
     public static final class PawnJump extends Move {
-        public PawnJump(final Board board, final Piece movedPiece, final int destinationCoordinate) {
-            super(board, movedPiece, destinationCoordinate);
-        }
-
-        @Override
-        public Board execute() {
-            final Builder builder = new Builder();
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
-            final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
-            builder.setPiece(movedPawn);
-            builder.setEnPassantPawn(movedPawn);
-            builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
-            return builder.build();
+        public PawnJump(final Piece movedPiece, final int destinationCoordinate) {
+            super(PAWN_JUMP, movedPiece, destinationCoordinate, null);
         }
 
         @Override
@@ -256,50 +223,8 @@ public abstract class Move {
 
     public static class PawnPromotion extends Move {
 
-        final Move decoratedMove;
-        final Pawn promotedPawn;
-
         public PawnPromotion(final Move decoratedMove) {
-            super(decoratedMove.getBoard(), decoratedMove.getMovedPiece(), decoratedMove.getDestinationCoordinate());
-            this.decoratedMove = decoratedMove;
-            this.promotedPawn = (Pawn) decoratedMove.getMovedPiece();
-        }
-
-        @Override
-        public int hashCode() {
-            return decoratedMove.hashCode() + (31 * promotedPawn.hashCode());
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof PawnPromotion && super.equals(other);
-        }
-
-        @Override
-        public Board execute() {
-            final Board pawnMovedBoard = this.decoratedMove.execute();
-            final Builder builder = new Builder();
-            for(final Piece piece : pawnMovedBoard.getCurrentPlayer().getActivePieces()) {
-                if(!this.promotedPawn.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : pawnMovedBoard.getCurrentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
-            builder.setMoveMaker(pawnMovedBoard.getCurrentPlayer().getAlliance());
-            return builder.build();
-        }
-
-        @Override
-        public boolean isAttack() {
-            return this.decoratedMove.isAttack();
-        }
-
-        @Override
-        public Piece getAttackedPiece() {
-            return this.decoratedMove.getAttackedPiece();
+            super(PAWN_PROMOTION, decoratedMove.getMovedPiece(), decoratedMove.getDestinationCoordinate(), decoratedMove.getAttackedPiece());
         }
 
         @Override
@@ -313,8 +238,8 @@ public abstract class Move {
         protected final int castleRookStart;
         protected final int castleRookDestination;
 
-        public CastleMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
-            super(board, movedPiece, destinationCoordinate);
+        CastleMove(final int moveType, final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
+            super(moveType, movedPiece, destinationCoordinate, null);
             this.castleRook = castleRook;
             this.castleRookStart = castleRookStart;
             this.castleRookDestination = castleRookDestination;
@@ -323,96 +248,32 @@ public abstract class Move {
         public Rook getCastleRook() {
             return this.castleRook;
         }
-
-        @Override
-        public boolean isCastlingMove() {
-            return true;
-        }
-
-        @Override
-        public Board execute() {
-            final Builder builder = new Builder();
-            for (final Piece piece : this.board.getCurrentPlayer().getActivePieces()) {
-                if(!this.movedPiece.equals(piece) && !this.castleRook.equals(piece)) {
-                    builder.setPiece(piece);
-                }
-            }
-            for(final Piece piece : this.board.getCurrentPlayer().getOpponent().getActivePieces()) {
-                builder.setPiece(piece);
-            }
-            builder.setPiece(this.movedPiece.movePiece(this));
-            // TODO first move on normal pieces
-            builder.setPiece(new Rook(this.castleRook.getPieceAlliance(), this.castleRookDestination, false));
-            builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getAlliance());
-            return builder.build();
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = super.hashCode();
-            result = prime * result + this.castleRook.hashCode();
-            result = prime * result + this.castleRookDestination;
-            return result;
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            if(this == other) {
-                return true;
-            }
-            if(!(other instanceof CastleMove)) {
-                return false;
-            }
-            final CastleMove otherCastleMove = (CastleMove)other;
-            return super.equals(otherCastleMove) && this.castleRook.equals(otherCastleMove.getCastleRook());
-        }
     }
 
     public static final class KingSideCastleMove extends CastleMove {
-        public KingSideCastleMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
-            super(board, movedPiece, destinationCoordinate, castleRook, castleRookStart, castleRookDestination);
+        public KingSideCastleMove(final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
+            super(KING_SIDE_CASTLE_MOVE, movedPiece, destinationCoordinate, castleRook, castleRookStart, castleRookDestination);
         }
 
         @Override
         public String toString() {
             return "0-0";
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof KingSideCastleMove && super.equals(other);
-        }
     }
 
     public static final class QueenSideCastleMove extends CastleMove {
-        public QueenSideCastleMove(final Board board, final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
-            super(board, movedPiece, destinationCoordinate, castleRook, castleRookStart, castleRookDestination);
+        public QueenSideCastleMove(final Piece movedPiece, final int destinationCoordinate, final Rook castleRook, final int castleRookStart, final int castleRookDestination) {
+            super(QUEEN_SIDE_CASTLE_MOVE, movedPiece, destinationCoordinate, castleRook, castleRookStart, castleRookDestination);
         }
         @Override
         public String toString() {
             return "0-0-0";
         }
-
-        @Override
-        public boolean equals(final Object other) {
-            return this == other || other instanceof QueenSideCastleMove && super.equals(other);
-        }
     }
 
     public static final class NullMove extends Move {
         public NullMove() {
-            super(null, 65);
-        }
-
-        @Override
-        public Board execute() {
-            throw new RuntimeException("Can't execute null");
-        }
-
-        @Override
-        public int getCurrentCoordinate() {
-            return -1;
+            super(NULL_MOVE_TYPE, null, 65, null);
         }
     }
 
@@ -424,12 +285,11 @@ public abstract class Move {
         }
 
         public static Move createMove(final Board board, final int currentCoordinate, final int destinationCoordinate) {
-            for (final Move move : board.getAllLegalMoves()) {
-                if (move.getCurrentCoordinate() == currentCoordinate && move.getDestinationCoordinate() == destinationCoordinate) {
-                    return move;
-                }
+            Move move = board.getCurrentPlayer().findLegalMove(currentCoordinate, destinationCoordinate);
+            if (move == null) {
+                move = board.getCurrentPlayer().getOpponent().findLegalMove(currentCoordinate, destinationCoordinate);
             }
-            return NULL_MOVE;
+            return move != null ? move : NULL_MOVE;
         }
     }
 }
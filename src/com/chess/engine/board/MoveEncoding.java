@@ -0,0 +1,83 @@
+package com.chess.engine.board;
+
+/**
+ * Moves packed into the low 16 bits of an int: 6 bits of origin, 6 bits of destination and
+ * 4 bits of flags. The flags follow the usual layout, so the promotion bit and the capture bit
+ * can be tested on their own.
+ */
+public final class MoveEncoding {
+
+    public static final int NO_MOVE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PAWN_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EN_PASSANT = 5;
+    public static final int PROMOTION = 8;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int FLAGS_SHIFT = 12;
+
+    private MoveEncoding() {
+        throw new RuntimeException("Do not instantiate move encoding");
+    }
+
+    public static int create(final int from, final int to, final int flags) {
+        return from | (to << TO_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    public static int createPromotion(final int from, final int to, final int promotionType, final boolean isCapture) {
+        return create(from, to, PROMOTION | (isCapture ? CAPTURE : 0) | (promotionType - Position.KNIGHT));
+    }
+
+    public static int getFrom(final int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(final int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int getFlags(final int move) {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (getFlags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (getFlags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isEnPassant(final int move) {
+        return getFlags(move) == EN_PASSANT;
+    }
+
+    public static boolean isCastle(final int move) {
+        final int flags = getFlags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static boolean isDoublePawnPush(final int move) {
+        return getFlags(move) == DOUBLE_PAWN_PUSH;
+    }
+
+    /**
+     * The piece type a pawn turns into, or {@link Position#PAWN} when the move is no promotion.
+     */
+    public static int getPromotionType(final int move) {
+        return isPromotion(move) ? Position.KNIGHT + (getFlags(move) & 3) : Position.PAWN;
+    }
+
+    /**
+     * Coordinate notation such as e2e4 or a7a8q, as used by perft divide output.
+     */
+    public static String toAlgebraic(final int move) {
+        final String squares = BoardUtils.getPositionAtCoordinate(getFrom(move)) + BoardUtils.getPositionAtCoordinate(getTo(move));
+        return isPromotion(move) ? squares + "nbrq".charAt(getPromotionType(move) - Position.KNIGHT) : squares;
+    }
+}
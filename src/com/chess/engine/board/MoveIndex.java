@@ -0,0 +1,53 @@
+package com.chess.engine.board;
+
+import java.util.Collection;
+
+/**
+ * An immutable open addressing map from (from, to) squares to the move between them. Queens are the
+ * only promotion piece, so a square pair identifies at most one move.
+ */
+public final class MoveIndex {
+
+    private final int[] keys;
+    private final Move[] moves;
+    private final int mask;
+
+    public MoveIndex(final Collection<Move> moves) {
+        // at most half full keeps probe chains short
+        final int capacity = Integer.highestOneBit(Math.max(moves.size(), 1) * 2) << 1;
+        this.keys = new int[capacity];
+        this.moves = new Move[capacity];
+        this.mask = capacity - 1;
+        for (final Move move : moves) {
+            final int key = key(move.getCurrentCoordinate(), move.getDestinationCoordinate());
+            int slot = slot(key);
+            while (this.keys[slot] != 0 && this.keys[slot] != key) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.keys[slot] = key;
+            this.moves[slot] = move;
+        }
+    }
+
+    public Move get(final int currentCoordinate, final int destinationCoordinate) {
+        if (!BoardUtils.isValidTileCoordinate(currentCoordinate) || !BoardUtils.isValidTileCoordinate(destinationCoordinate)) {
+            return null;
+        }
+        final int key = key(currentCoordinate, destinationCoordinate);
+        for (int slot = slot(key); this.keys[slot] != 0; slot = (slot + 1) & this.mask) {
+            if (this.keys[slot] == key) {
+                return this.moves[slot];
+            }
+        }
+        return null;
+    }
+
+    // offset by one so that zero marks an empty slot
+    private static int key(final int currentCoordinate, final int destinationCoordinate) {
+        return (currentCoordinate << 6 | destinationCoordinate) + 1;
+    }
+
+    private int slot(final int key) {
+        return (key * 0x9E3779B9 >>> 16) & this.mask;
+    }
+}
@@ -0,0 +1,57 @@
+package com.chess.engine.board;
+
+/**
+ * A reusable list of encoded moves. Search keeps one per ply, so filling it allocates nothing.
+ */
+public final class MoveList {
+
+    private final int[] moves = new int[Position.MAX_MOVES];
+    private final int[] scores = new int[Position.MAX_MOVES];
+    private int size;
+
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public int getScore(final int index) {
+        return this.scores[index];
+    }
+
+    public void setScore(final int index, final int score) {
+        this.scores[index] = score;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void swap(final int first, final int second) {
+        final int move = this.moves[first];
+        final int score = this.scores[first];
+        this.moves[first] = this.moves[second];
+        this.scores[first] = this.scores[second];
+        this.moves[second] = move;
+        this.scores[second] = score;
+    }
+}
@@ -0,0 +1,637 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+import static com.chess.engine.board.MoveEncoding.*;
+
+/**
+ * A mutable, search-only view of a {@link Board}. Moves are plain ints and are applied and
+ * taken back in place, so walking a search tree allocates no boards, tiles, pieces or players.
+ */
+public final class Position {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // piece type indices, matching PieceType ordinals
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int EMPTY = -1;
+    public static final int MAX_PLY = 128;
+    public static final int MAX_MOVES = 256;
+
+    private static final int NUM_PIECE_TYPES = 6;
+
+    private static final int CAPTURE_MOVES = 1;
+    private static final int QUIET_MOVES = 2;
+    private static final int ALL_MOVES = CAPTURE_MOVES | QUIET_MOVES;
+
+    private static final long[][] SQUARES_BETWEEN = initSquaresBetween();
+    private static final int[] PROMOTION_TYPES = {QUEEN, ROOK, BISHOP, KNIGHT};
+    private static final int[] PIECE_VALUES = initPieceValues();
+
+    private final int[] squares = new int[BoardUtils.NUM_TILES];
+    private final long[][] pieces = new long[2][NUM_PIECE_TYPES];
+    private final long[] occupancy = new long[2];
+    private final int[] material = new int[2];
+    // attacksFrom[square] holds the squares the piece on square attacks, attackersTo[alliance][square]
+    // the pieces of that alliance attacking square; both follow every make and unmake
+    private final long[] attacksFrom = new long[BoardUtils.NUM_TILES];
+    private final long[][] attackersTo = new long[2][BoardUtils.NUM_TILES];
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private long zobristKey;
+
+    private final int[] moveStack = new int[MAX_PLY];
+    private final int[] capturedStack = new int[MAX_PLY];
+    private final int[] castlingRightsStack = new int[MAX_PLY];
+    private final int[] enPassantStack = new int[MAX_PLY];
+    private final long[] zobristKeyStack = new long[MAX_PLY];
+    private int ply;
+
+    // scratch state for the generator, only meaningful for squares set in the pinned mask
+    private final long[] pinRays = new long[BoardUtils.NUM_TILES];
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final MoveList legalityMoves = new MoveList();
+
+    public Position(final Board board) {
+        this(board, board.getCurrentPlayer().getAlliance());
+    }
+
+    public Position(final Board board, final Alliance sideToMove) {
+        Arrays.fill(this.squares, EMPTY);
+        for (final Piece piece : board.getWhitePieces()) {
+            addPiece(piece.getPiecePosition(), pieceCode(WHITE, piece.getPieceType().ordinal()));
+        }
+        for (final Piece piece : board.getBlackPieces()) {
+            addPiece(piece.getPiecePosition(), pieceCode(BLACK, piece.getPieceType().ordinal()));
+        }
+        this.sideToMove = sideToMove.isWhite() ? WHITE : BLACK;
+        this.castlingRights = board.getCastlingRights();
+        this.enPassantSquare = EMPTY;
+        if (board.getEnPassantSquare() != EMPTY && board.getEnPassantPawn().getPieceAlliance() != sideToMove) {
+            this.enPassantSquare = board.getEnPassantSquare();
+        }
+        this.ply = 0;
+        this.zobristKey ^= Zobrist.sideKey(sideToMove)
+                ^ Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.enPassantSquare);
+        attachAttacks(this.occupancy[WHITE] | this.occupancy[BLACK]);
+    }
+
+    public static int pieceCode(final int alliance, final int pieceType) {
+        return alliance * NUM_PIECE_TYPES + pieceType;
+    }
+
+    public static int pieceType(final int pieceCode) {
+        return pieceCode % NUM_PIECE_TYPES;
+    }
+
+    public static int pieceAlliance(final int pieceCode) {
+        return pieceCode / NUM_PIECE_TYPES;
+    }
+
+    public int getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getPly() {
+        return this.ply;
+    }
+
+    public Alliance getSideToMoveAlliance() {
+        return this.sideToMove == WHITE ? Alliance.WHITE : Alliance.BLACK;
+    }
+
+    public int getPieceAt(final int square) {
+        return this.squares[square];
+    }
+
+    public long getPieces(final int alliance, final int pieceType) {
+        return this.pieces[alliance][pieceType];
+    }
+
+    public long getOccupancy(final int alliance) {
+        return this.occupancy[alliance];
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    public int getMaterial(final int alliance) {
+        return this.material[alliance];
+    }
+
+    public int getKingSquare(final int alliance) {
+        return Long.numberOfTrailingZeros(this.pieces[alliance][KING]);
+    }
+
+    public boolean isInCheck() {
+        return isSquareAttacked(getKingSquare(this.sideToMove), 1 - this.sideToMove);
+    }
+
+    public boolean isSquareAttacked(final int square, final int attacker) {
+        return this.attackersTo[attacker][square] != 0;
+    }
+
+    public long getAttackers(final int square, final int attacker) {
+        return this.attackersTo[attacker][square];
+    }
+
+    public int getAttackerCount(final int square, final int attacker) {
+        return Long.bitCount(this.attackersTo[attacker][square]);
+    }
+
+    public long getAttacksFrom(final int square) {
+        return this.attacksFrom[square];
+    }
+
+    private boolean isSquareAttacked(final int square, final int attacker, final long allPieces) {
+        final long[] attackerPieces = this.pieces[attacker];
+        return (BitBoard.PAWN_ATTACKS[1 - attacker][square] & attackerPieces[PAWN]) != 0
+                || (BitBoard.KNIGHT_ATTACKS[square] & attackerPieces[KNIGHT]) != 0
+                || (BitBoard.KING_ATTACKS[square] & attackerPieces[KING]) != 0
+                || (MagicBitBoards.rookAttacks(square, allPieces) & (attackerPieces[ROOK] | attackerPieces[QUEEN])) != 0
+                || (MagicBitBoards.bishopAttacks(square, allPieces) & (attackerPieces[BISHOP] | attackerPieces[QUEEN])) != 0;
+    }
+
+    private long attackersTo(final int square, final int attacker, final long allPieces) {
+        final long[] attackerPieces = this.pieces[attacker];
+        return (BitBoard.PAWN_ATTACKS[1 - attacker][square] & attackerPieces[PAWN])
+                | (BitBoard.KNIGHT_ATTACKS[square] & attackerPieces[KNIGHT])
+                | (BitBoard.KING_ATTACKS[square] & attackerPieces[KING])
+                | (MagicBitBoards.rookAttacks(square, allPieces) & (attackerPieces[ROOK] | attackerPieces[QUEEN]))
+                | (MagicBitBoards.bishopAttacks(square, allPieces) & (attackerPieces[BISHOP] | attackerPieces[QUEEN]));
+    }
+
+    public boolean hasLegalMoves() {
+        return !generateMoves().isEmpty();
+    }
+
+    /**
+     * Generates the strictly legal moves for the side to move. Pinned pieces stay on their pin
+     * ray, a side in check only gets evasions and the king never steps onto an attacked square,
+     * so every returned move can be played with {@link #makeMove(int)} without a further test.
+     * The list belongs to the current ply and is refilled by the next call at the same ply.
+     */
+    public MoveList generateMoves() {
+        MoveList moves = this.moveLists[this.ply];
+        if (moves == null) {
+            moves = new MoveList();
+            this.moveLists[this.ply] = moves;
+        }
+        generateMoves(moves);
+        return moves;
+    }
+
+    public void generateMoves(final MoveList moves) {
+        moves.clear();
+        generateMoves(this.sideToMove, moves, ALL_MOVES, ~0L);
+    }
+
+    /**
+     * Generates the legal captures, en passant and promotions; together with
+     * {@link #generateQuietMoves(MoveList)} this yields exactly {@link #generateMoves(MoveList)}.
+     */
+    public void generateCaptures(final MoveList moves) {
+        moves.clear();
+        generateMoves(this.sideToMove, moves, CAPTURE_MOVES, ~0L);
+    }
+
+    public void generateQuietMoves(final MoveList moves) {
+        moves.clear();
+        generateMoves(this.sideToMove, moves, QUIET_MOVES, ~0L);
+    }
+
+    /**
+     * Checks a move from elsewhere, say a hash table or a sibling node, by generating only the
+     * moves of the piece standing on its origin.
+     */
+    public boolean isLegal(final int move) {
+        final int from = getFrom(move);
+        if (move == NO_MOVE || this.squares[from] == EMPTY || pieceAlliance(this.squares[from]) != this.sideToMove) {
+            return false;
+        }
+        this.legalityMoves.clear();
+        generateMoves(this.sideToMove, this.legalityMoves, ALL_MOVES, BitBoard.squareMask(from));
+        return this.legalityMoves.contains(move);
+    }
+
+    public int countMoves(final int alliance) {
+        final long own = this.occupancy[alliance];
+        final long enemy = this.occupancy[1 - alliance];
+        final long allPieces = own | enemy;
+        final long[] ownPieces = this.pieces[alliance];
+        int count = 0;
+        long pawns = ownPieces[PAWN];
+        while (pawns != 0) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            count += Long.bitCount(BitBoard.PAWN_ATTACKS[alliance][from] & enemy);
+            final int push = from + pawnDirection(alliance);
+            if ((allPieces & BitBoard.squareMask(push)) == 0) {
+                count++;
+                if (isPawnStartSquare(alliance, from) && (allPieces & BitBoard.squareMask(push + pawnDirection(alliance))) == 0) {
+                    count++;
+                }
+            }
+        }
+        long movers = own & ~ownPieces[PAWN];
+        while (movers != 0) {
+            final int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            count += Long.bitCount(this.attacksFrom[from] & ~own);
+        }
+        return count;
+    }
+
+    public void makeMove(final int move) {
+        final int from = getFrom(move);
+        final int to = getTo(move);
+        final int flags = getFlags(move);
+        final int us = this.sideToMove;
+        final int them = 1 - us;
+        final int movingPiece = this.squares[from];
+
+        this.moveStack[this.ply] = move;
+        this.castlingRightsStack[this.ply] = this.castlingRights;
+        this.enPassantStack[this.ply] = this.enPassantSquare;
+        this.zobristKeyStack[this.ply] = this.zobristKey;
+
+        final long changedSquares = changedSquares(us, from, to, flags);
+        final long touchedSliders = detachAttacks(changedSquares);
+
+        int capturedPiece = EMPTY;
+        if (flags == EN_PASSANT) {
+            final int capturedSquare = to - pawnDirection(us);
+            capturedPiece = this.squares[capturedSquare];
+            removePiece(capturedSquare);
+        } else if ((flags & CAPTURE) != 0) {
+            capturedPiece = this.squares[to];
+            removePiece(to);
+        }
+        this.capturedStack[this.ply] = capturedPiece;
+
+        removePiece(from);
+        addPiece(to, (flags & PROMOTION) != 0 ? pieceCode(us, getPromotionType(move)) : movingPiece);
+
+        if (flags == KING_CASTLE) {
+            removePiece(to + 1);
+            addPiece(to - 1, pieceCode(us, ROOK));
+        } else if (flags == QUEEN_CASTLE) {
+            removePiece(to - 2);
+            addPiece(to + 1, pieceCode(us, ROOK));
+        }
+
+        attachAttacks(touchedSliders | (changedSquares & (this.occupancy[WHITE] | this.occupancy[BLACK])));
+
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.enPassantKey(this.enPassantSquare);
+        this.enPassantSquare = flags == DOUBLE_PAWN_PUSH ? (from + to) / 2 : EMPTY;
+        this.castlingRights &= BoardUtils.CASTLING_RIGHTS_MASK[from] & BoardUtils.CASTLING_RIGHTS_MASK[to];
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights)
+                ^ Zobrist.enPassantKey(this.enPassantSquare)
+                ^ Zobrist.blackToMoveKey();
+        this.sideToMove = them;
+        this.ply++;
+    }
+
+    public void unmakeMove() {
+        this.ply--;
+        final int move = this.moveStack[this.ply];
+        final int from = getFrom(move);
+        final int to = getTo(move);
+        final int flags = getFlags(move);
+        final int us = 1 - this.sideToMove;
+
+        this.sideToMove = us;
+        this.castlingRights = this.castlingRightsStack[this.ply];
+        this.enPassantSquare = this.enPassantStack[this.ply];
+
+        final long changedSquares = changedSquares(us, from, to, flags);
+        final long touchedSliders = detachAttacks(changedSquares);
+
+        final int movedPiece = (flags & PROMOTION) != 0 ? pieceCode(us, PAWN) : this.squares[to];
+        removePiece(to);
+        addPiece(from, movedPiece);
+
+        if (flags == KING_CASTLE) {
+            removePiece(to - 1);
+            addPiece(to + 1, pieceCode(us, ROOK));
+        } else if (flags == QUEEN_CASTLE) {
+            removePiece(to + 1);
+            addPiece(to - 2, pieceCode(us, ROOK));
+        }
+
+        final int capturedPiece = this.capturedStack[this.ply];
+        if (flags == EN_PASSANT) {
+            addPiece(to - pawnDirection(us), capturedPiece);
+        } else if (capturedPiece != EMPTY) {
+            addPiece(to, capturedPiece);
+        }
+
+        attachAttacks(touchedSliders | (changedSquares & (this.occupancy[WHITE] | this.occupancy[BLACK])));
+        this.zobristKey = this.zobristKeyStack[this.ply];
+    }
+
+    private static long changedSquares(final int us, final int from, final int to, final int flags) {
+        long changedSquares = BitBoard.squareMask(from) | BitBoard.squareMask(to);
+        if (flags == EN_PASSANT) {
+            changedSquares |= BitBoard.squareMask(to - pawnDirection(us));
+        } else if (flags == KING_CASTLE) {
+            changedSquares |= BitBoard.squareMask(to + 1) | BitBoard.squareMask(to - 1);
+        } else if (flags == QUEEN_CASTLE) {
+            changedSquares |= BitBoard.squareMask(to - 2) | BitBoard.squareMask(to + 1);
+        }
+        return changedSquares;
+    }
+
+    /**
+     * Takes the attacks of every piece on a changed square, and of every slider whose rays reach
+     * one, out of the attack maps. Returns the sliders that must be attached again afterwards;
+     * no other piece can gain or lose attacks when only those squares change.
+     */
+    private long detachAttacks(final long changedSquares) {
+        long touchingPieces = 0L;
+        long squares = changedSquares;
+        while (squares != 0) {
+            final int square = Long.numberOfTrailingZeros(squares);
+            squares &= squares - 1;
+            touchingPieces |= this.attackersTo[WHITE][square] | this.attackersTo[BLACK][square];
+        }
+        final long touchedSliders = touchingPieces & ~changedSquares & sliders();
+        long detached = (touchedSliders | changedSquares) & (this.occupancy[WHITE] | this.occupancy[BLACK]);
+        while (detached != 0) {
+            final int square = Long.numberOfTrailingZeros(detached);
+            detached &= detached - 1;
+            final long[] attackers = this.attackersTo[pieceAlliance(this.squares[square])];
+            final long squareMask = ~BitBoard.squareMask(square);
+            long targets = this.attacksFrom[square];
+            while (targets != 0) {
+                attackers[Long.numberOfTrailingZeros(targets)] &= squareMask;
+                targets &= targets - 1;
+            }
+            this.attacksFrom[square] = 0L;
+        }
+        return touchedSliders;
+    }
+
+    private void attachAttacks(long attached) {
+        final long allPieces = this.occupancy[WHITE] | this.occupancy[BLACK];
+        while (attached != 0) {
+            final int square = Long.numberOfTrailingZeros(attached);
+            attached &= attached - 1;
+            final int pieceCode = this.squares[square];
+            final long[] attackers = this.attackersTo[pieceAlliance(pieceCode)];
+            final long squareMask = BitBoard.squareMask(square);
+            final long attacks = attacksFrom(pieceType(pieceCode), pieceAlliance(pieceCode), square, allPieces);
+            long targets = attacks;
+            while (targets != 0) {
+                attackers[Long.numberOfTrailingZeros(targets)] |= squareMask;
+                targets &= targets - 1;
+            }
+            this.attacksFrom[square] = attacks;
+        }
+    }
+
+    private long sliders() {
+        final long[] white = this.pieces[WHITE];
+        final long[] black = this.pieces[BLACK];
+        return white[BISHOP] | white[ROOK] | white[QUEEN] | black[BISHOP] | black[ROOK] | black[QUEEN];
+    }
+
+    private void generateMoves(final int us, final MoveList moves, final int moveTypes, final long origins) {
+        final int them = 1 - us;
+        final long own = this.occupancy[us];
+        final long enemy = this.occupancy[them];
+        final long allPieces = own | enemy;
+        final long[] ownPieces = this.pieces[us];
+        final int kingSquare = getKingSquare(us);
+        final boolean captures = (moveTypes & CAPTURE_MOVES) != 0;
+        final boolean quiets = (moveTypes & QUIET_MOVES) != 0;
+        final long targetSquares = (captures ? enemy : 0L) | (quiets ? ~allPieces : 0L);
+
+        if ((origins & BitBoard.squareMask(kingSquare)) != 0) {
+            // the king is lifted off the board so it cannot hide behind itself on a slider's ray
+            final long kinglessPieces = allPieces ^ BitBoard.squareMask(kingSquare);
+            long kingTargets = BitBoard.KING_ATTACKS[kingSquare] & targetSquares;
+            while (kingTargets != 0) {
+                final int to = Long.numberOfTrailingZeros(kingTargets);
+                kingTargets &= kingTargets - 1;
+                if (!isSquareAttacked(to, them, kinglessPieces)) {
+                    moves.add(create(kingSquare, to, (enemy & BitBoard.squareMask(to)) != 0 ? CAPTURE : QUIET));
+                }
+            }
+        }
+
+        final long checkers = this.attackersTo[them][kingSquare];
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+        final long checkMask = checkers == 0
+                ? ~0L
+                : checkers | SQUARES_BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+        final long pinned = calculatePins(us, kingSquare, allPieces);
+
+        long pawns = ownPieces[PAWN] & origins;
+        while (pawns != 0) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final long targetMask = (pinned & BitBoard.squareMask(from)) != 0 ? checkMask & this.pinRays[from] : checkMask;
+            final int push = from + pawnDirection(us);
+            if ((allPieces & BitBoard.squareMask(push)) == 0) {
+                // promotions are searched with the captures
+                if ((targetMask & BitBoard.squareMask(push)) != 0 && (isPawnPromotionSquare(us, push) ? captures : quiets)) {
+                    addPawnMoves(moves, us, from, push, false);
+                }
+                final int jump = push + pawnDirection(us);
+                if (quiets
+                        && isPawnStartSquare(us, from)
+                        && (allPieces & BitBoard.squareMask(jump)) == 0
+                        && (targetMask & BitBoard.squareMask(jump)) != 0) {
+                    moves.add(create(from, jump, DOUBLE_PAWN_PUSH));
+                }
+            }
+            if (!captures) {
+                continue;
+            }
+            long pawnCaptures = BitBoard.PAWN_ATTACKS[us][from] & enemy & targetMask;
+            while (pawnCaptures != 0) {
+                final int to = Long.numberOfTrailingZeros(pawnCaptures);
+                pawnCaptures &= pawnCaptures - 1;
+                addPawnMoves(moves, us, from, to, true);
+            }
+            if (this.enPassantSquare != EMPTY
+                    && (BitBoard.PAWN_ATTACKS[us][from] & BitBoard.squareMask(this.enPassantSquare)) != 0
+                    && isLegalEnPassant(us, kingSquare, from, allPieces)) {
+                moves.add(create(from, this.enPassantSquare, EN_PASSANT));
+            }
+        }
+
+        long movers = own & ~ownPieces[PAWN] & ~ownPieces[KING] & origins;
+        while (movers != 0) {
+            final int from = Long.numberOfTrailingZeros(movers);
+            movers &= movers - 1;
+            long targets = this.attacksFrom[from] & targetSquares & checkMask;
+            if ((pinned & BitBoard.squareMask(from)) != 0) {
+                targets &= this.pinRays[from];
+            }
+            while (targets != 0) {
+                final int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves.add(create(from, to, (enemy & BitBoard.squareMask(to)) != 0 ? CAPTURE : QUIET));
+            }
+        }
+
+        if (checkers == 0 && quiets && (origins & BitBoard.squareMask(kingSquare)) != 0) {
+            addCastleMoves(moves, us, allPieces);
+        }
+    }
+
+    private long calculatePins(final int us, final int kingSquare, final long allPieces) {
+        final long[] enemyPieces = this.pieces[1 - us];
+        final long enemy = this.occupancy[1 - us];
+        long snipers = (MagicBitBoards.rookAttacks(kingSquare, enemy) & (enemyPieces[ROOK] | enemyPieces[QUEEN]))
+                | (MagicBitBoards.bishopAttacks(kingSquare, enemy) & (enemyPieces[BISHOP] | enemyPieces[QUEEN]));
+        long pinned = 0L;
+        while (snipers != 0) {
+            final int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            final long blockers = SQUARES_BETWEEN[kingSquare][sniper] & allPieces;
+            if (Long.bitCount(blockers) == 1 && (blockers & this.occupancy[us]) != 0) {
+                pinned |= blockers;
+                this.pinRays[Long.numberOfTrailingZeros(blockers)] = SQUARES_BETWEEN[kingSquare][sniper] | BitBoard.squareMask(sniper);
+            }
+        }
+        return pinned;
+    }
+
+    private boolean isLegalEnPassant(final int us, final int kingSquare, final int from, final long allPieces) {
+        // two pieces leave the same rank at once, so pins alone cannot decide this one
+        final long capturedMask = BitBoard.squareMask(this.enPassantSquare - pawnDirection(us));
+        final long afterCapture = (allPieces ^ BitBoard.squareMask(from) ^ capturedMask) | BitBoard.squareMask(this.enPassantSquare);
+        return (attackersTo(kingSquare, 1 - us, afterCapture) & ~capturedMask) == 0;
+    }
+
+    private static void addPawnMoves(final MoveList moves, final int us, final int from, final int to, final boolean isCapture) {
+        if (isPawnPromotionSquare(us, to)) {
+            for (final int promotionType : PROMOTION_TYPES) {
+                moves.add(createPromotion(from, to, promotionType, isCapture));
+            }
+        } else {
+            moves.add(create(from, to, isCapture ? CAPTURE : QUIET));
+        }
+    }
+
+    private void addCastleMoves(final MoveList moves, final int us, final long allPieces) {
+        final int them = 1 - us;
+        final int kingSide = us == WHITE ? BoardUtils.WHITE_KING_SIDE_CASTLE : BoardUtils.BLACK_KING_SIDE_CASTLE;
+        final int queenSide = us == WHITE ? BoardUtils.WHITE_QUEEN_SIDE_CASTLE : BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+        if ((this.castlingRights & (kingSide | queenSide)) == 0) {
+            return;
+        }
+        final int kingSquare = us == WHITE ? 60 : 4;
+        if ((this.castlingRights & kingSide) != 0
+                && (allPieces & (BitBoard.squareMask(kingSquare + 1) | BitBoard.squareMask(kingSquare + 2))) == 0
+                && !isSquareAttacked(kingSquare + 1, them)
+                && !isSquareAttacked(kingSquare + 2, them)) {
+            moves.add(create(kingSquare, kingSquare + 2, KING_CASTLE));
+        }
+        if ((this.castlingRights & queenSide) != 0
+                && (allPieces & (BitBoard.squareMask(kingSquare - 1) | BitBoard.squareMask(kingSquare - 2) | BitBoard.squareMask(kingSquare - 3))) == 0
+                && !isSquareAttacked(kingSquare - 1, them)
+                && !isSquareAttacked(kingSquare - 2, them)) {
+            moves.add(create(kingSquare, kingSquare - 2, QUEEN_CASTLE));
+        }
+    }
+
+    private static long attacksFrom(final int pieceType, final int alliance, final int square, final long allPieces) {
+        switch (pieceType) {
+            case PAWN:
+                return BitBoard.PAWN_ATTACKS[alliance][square];
+            case KNIGHT:
+                return BitBoard.KNIGHT_ATTACKS[square];
+            case BISHOP:
+                return MagicBitBoards.bishopAttacks(square, allPieces);
+            case ROOK:
+                return MagicBitBoards.rookAttacks(square, allPieces);
+            case QUEEN:
+                return MagicBitBoards.queenAttacks(square, allPieces);
+            default:
+                return BitBoard.KING_ATTACKS[square];
+        }
+    }
+
+    private void addPiece(final int square, final int pieceCode) {
+        final long mask = BitBoard.squareMask(square);
+        this.squares[square] = pieceCode;
+        this.pieces[pieceAlliance(pieceCode)][pieceType(pieceCode)] |= mask;
+        this.occupancy[pieceAlliance(pieceCode)] |= mask;
+        this.material[pieceAlliance(pieceCode)] += PIECE_VALUES[pieceType(pieceCode)];
+        this.zobristKey ^= Zobrist.pieceKey(pieceAlliance(pieceCode), pieceType(pieceCode), square);
+    }
+
+    private void removePiece(final int square) {
+        final int pieceCode = this.squares[square];
+        final long mask = ~BitBoard.squareMask(square);
+        this.squares[square] = EMPTY;
+        this.pieces[pieceAlliance(pieceCode)][pieceType(pieceCode)] &= mask;
+        this.occupancy[pieceAlliance(pieceCode)] &= mask;
+        this.material[pieceAlliance(pieceCode)] -= PIECE_VALUES[pieceType(pieceCode)];
+        this.zobristKey ^= Zobrist.pieceKey(pieceAlliance(pieceCode), pieceType(pieceCode), square);
+    }
+
+    private static int[] initPieceValues() {
+        final int[] pieceValues = new int[NUM_PIECE_TYPES];
+        for (final PieceType pieceType : PieceType.values()) {
+            pieceValues[pieceType.ordinal()] = pieceType.getPieceValue();
+        }
+        return pieceValues;
+    }
+
+    private static int pawnDirection(final int alliance) {
+        return alliance == WHITE ? -8 : 8;
+    }
+
+    private static boolean isPawnStartSquare(final int alliance, final int square) {
+        return alliance == WHITE ? BoardUtils.SECOND_RANK[square] : BoardUtils.SEVENTH_RANK[square];
+    }
+
+    private static boolean isPawnPromotionSquare(final int alliance, final int square) {
+        return alliance == WHITE ? BoardUtils.EIGHTH_RANK[square] : BoardUtils.FIRST_RANK[square];
+    }
+
+    private static long[][] initSquaresBetween() {
+        final long[][] squaresBetween = new long[BoardUtils.NUM_TILES][BoardUtils.NUM_TILES];
+        for (int from = 0; from < BoardUtils.NUM_TILES; from++) {
+            for (int to = 0; to < BoardUtils.NUM_TILES; to++) {
+                final long fromMask = BitBoard.squareMask(from);
+                final long toMask = BitBoard.squareMask(to);
+                if ((MagicBitBoards.rookAttacks(from, 0L) & toMask) != 0) {
+                    squaresBetween[from][to] = MagicBitBoards.rookAttacks(from, toMask) & MagicBitBoards.rookAttacks(to, fromMask);
+                } else if ((MagicBitBoards.bishopAttacks(from, 0L) & toMask) != 0) {
+                    squaresBetween[from][to] = MagicBitBoards.bishopAttacks(from, toMask) & MagicBitBoards.bishopAttacks(to, fromMask);
+                }
+            }
+        }
+        return squaresBetween;
+    }
+}
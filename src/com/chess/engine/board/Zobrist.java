@@ -0,0 +1,69 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+import java.util.SplittableRandom;
+
+/**
+ * 64-bit Zobrist keys. A position's key is the XOR of the keys of its pieces, of the side to
+ * move when that is black, of its castling rights and of its en passant square, so a move
+ * updates it by XORing out what it removes and XORing in what it adds.
+ */
+public final class Zobrist {
+
+    // fixed seed, so keys and anything stored under them are stable between runs
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[][][] PIECE_KEYS = new long[2][6][BoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (final long[][] allianceKeys : PIECE_KEYS) {
+            for (final long[] pieceKeys : allianceKeys) {
+                for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+                    pieceKeys[square] = random.nextLong();
+                }
+            }
+        }
+        // no rights hash to zero, so a position without them needs no special case
+        for (int castlingRights = 1; castlingRights < CASTLING_KEYS.length; castlingRights++) {
+            CASTLING_KEYS[castlingRights] = random.nextLong();
+        }
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            EN_PASSANT_KEYS[square] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("Do not instantiate zobrist");
+    }
+
+    public static long pieceKey(final int alliance, final int pieceType, final int square) {
+        return PIECE_KEYS[alliance][pieceType][square];
+    }
+
+    public static long pieceKey(final Piece piece) {
+        return PIECE_KEYS[piece.getPieceAlliance().ordinal()][piece.getPieceType().ordinal()][piece.getPiecePosition()];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final int enPassantSquare) {
+        return enPassantSquare == Position.EMPTY ? 0L : EN_PASSANT_KEYS[enPassantSquare];
+    }
+
+    public static long sideKey(final Alliance sideToMove) {
+        return sideToMove.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+    }
+
+    public static long blackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+}
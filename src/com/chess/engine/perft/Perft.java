@@ -0,0 +1,182 @@
+package com.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.Position;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Counts the leaf nodes of the move tree to a fixed depth. The Board overloads walk the
+ * GUI-facing Board/Move model; the Position overloads walk the search model, which follows the
+ * full rules and so matches the published counts of every {@link PerftPosition}. The Board model
+ * only promotes to a queen, so it falls short wherever under-promotions are in reach.
+ */
+public final class Perft {
+
+    private Perft() {
+        throw new RuntimeException("Do not instantiate perft");
+    }
+
+    public static long perft(final Board board, final int depth) {
+        return perft(board, depth, null);
+    }
+
+    public static long perft(final Board board, final int depth, final PerftHashTable hashTable) {
+        if (depth == 0) {
+            return 1L;
+        }
+        if (hashTable != null) {
+            final long cachedNodes = hashTable.probe(board.getZobristKey(), depth);
+            if (cachedNodes >= 0) {
+                return cachedNodes;
+            }
+        }
+        long nodes = 0L;
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += perft(transition.getBoard(), depth - 1, hashTable);
+            }
+        }
+        if (hashTable != null) {
+            hashTable.store(board.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    public static Map<Move, Long> divide(final Board board, final int depth) {
+        final Map<Move, Long> divide = new LinkedHashMap<>();
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                divide.put(move, perft(transition.getBoard(), depth - 1));
+            }
+        }
+        return divide;
+    }
+
+    public static long perft(final Position position, final int depth) {
+        return perft(position, depth, null);
+    }
+
+    public static long perft(final Position position, final int depth, final PerftHashTable hashTable) {
+        if (depth == 0) {
+            return 1L;
+        }
+        final MoveList moves = position.generateMoves();
+        // the generator is strictly legal, so the last ply is just a count
+        if (depth == 1) {
+            return moves.size();
+        }
+        if (hashTable != null) {
+            final long cachedNodes = hashTable.probe(position.getZobristKey(), depth);
+            if (cachedNodes >= 0) {
+                return cachedNodes;
+            }
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moves.size(); i++) {
+            position.makeMove(moves.get(i));
+            nodes += perft(position, depth - 1, hashTable);
+            position.unmakeMove();
+        }
+        if (hashTable != null) {
+            hashTable.store(position.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    public static Map<String, Long> divide(final Position position, final int depth) {
+        final Map<String, Long> divide = new LinkedHashMap<>();
+        for (final int move : copyMoves(position.generateMoves())) {
+            position.makeMove(move);
+            divide.put(MoveEncoding.toAlgebraic(move), perft(position, depth - 1));
+            position.unmakeMove();
+        }
+        return divide;
+    }
+
+    /**
+     * Splits the root moves across a pool of threads, each walking its subtrees on its own
+     * Position. The hash table, if any, is shared between them.
+     */
+    public static long parallelPerft(final Board board,
+                                     final int depth,
+                                     final int threads,
+                                     final PerftHashTable hashTable) {
+        if (depth < 2) {
+            return perft(new Position(board), depth, hashTable);
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Long>> results = new ArrayList<>();
+            for (final int move : copyMoves(new Position(board).generateMoves())) {
+                results.add(executorService.submit(() -> {
+                    final Position position = new Position(board);
+                    position.makeMove(move);
+                    return perft(position, depth - 1, hashTable);
+                }));
+            }
+            long nodes = 0L;
+            for (final Future<Long> result : results) {
+                nodes += result.get();
+            }
+            return nodes;
+        } catch (final InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private static int[] copyMoves(final MoveList moves) {
+        final int[] copy = new int[moves.size()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = moves.get(i);
+        }
+        return copy;
+    }
+
+    // usage: Perft [maxDepth] [threads] [hashMegabytes]
+    public static void main(final String[] args) {
+        final int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        boolean allPassed = true;
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            final Board board = FenUtilities.createGameFromFEN(perftPosition.getFen());
+            final int depth = Math.min(maxDepth, perftPosition.getMaxDepth());
+            final PerftHashTable hashTable = hashMegabytes > 0 ? new PerftHashTable(hashMegabytes) : null;
+            final long startTime = System.nanoTime();
+            final long nodes = parallelPerft(board, depth, threads, hashTable);
+            final long elapsed = Math.max(1L, System.nanoTime() - startTime);
+            final boolean passed = nodes == perftPosition.getNodeCount(depth);
+            allPassed &= passed;
+            System.out.println(String.format("%-10s depth %d %12d nodes %s %7d ms %,14d nps",
+                    perftPosition, depth, nodes, passed ? "OK  " : "FAIL", elapsed / 1000000, nodes * 1000000000L / elapsed));
+        }
+        final Board board = FenUtilities.createGameFromFEN(PerftPosition.INITIAL.getFen());
+        final int boardDepth = Math.min(maxDepth, 4);
+        final long startTime = System.nanoTime();
+        final long nodes = perft(board, boardDepth);
+        final long elapsed = Math.max(1L, System.nanoTime() - startTime);
+        System.out.println(String.format("%-10s depth %d %12d nodes %s %7d ms %,14d nps (Board model)",
+                PerftPosition.INITIAL, boardDepth, nodes, nodes == PerftPosition.INITIAL.getNodeCount(boardDepth) ? "OK  " : "FAIL",
+                elapsed / 1000000, nodes * 1000000000L / elapsed));
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
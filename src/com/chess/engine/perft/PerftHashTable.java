@@ -0,0 +1,43 @@
+package com.chess.engine.perft;
+
+/**
+ * Caches subtree node counts by Zobrist key and depth. Each entry is two longs, the data and
+ * the key XORed with the data, so threads can share a table without locks: a torn write fails
+ * the XOR check and reads as a miss. A table only holds counts for one move generator.
+ */
+public final class PerftHashTable {
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final int BYTES_PER_ENTRY = 16;
+    // the largest power of two a Java array can hold
+    private static final int MAX_ENTRIES = 1 << 30;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int indexMask;
+
+    public PerftHashTable(final int sizeInMegabytes) {
+        final long requestedEntries = ((long) sizeInMegabytes << 20) / BYTES_PER_ENTRY;
+        final int entries = (int) Long.highestOneBit(Math.max(1, Math.min(MAX_ENTRIES, requestedEntries)));
+        this.checks = new long[entries];
+        this.data = new long[entries];
+        this.indexMask = entries - 1;
+    }
+
+    public long probe(final long zobristKey, final int depth) {
+        final int index = (int) zobristKey & this.indexMask;
+        final long entry = this.data[index];
+        if ((this.checks[index] ^ entry) == zobristKey && (entry & DEPTH_MASK) == depth) {
+            return entry >>> DEPTH_BITS;
+        }
+        return -1;
+    }
+
+    public void store(final long zobristKey, final int depth, final long nodes) {
+        final int index = (int) zobristKey & this.indexMask;
+        final long entry = (nodes << DEPTH_BITS) | depth;
+        this.data[index] = entry;
+        this.checks[index] = zobristKey ^ entry;
+    }
+}
@@ -1,83 +1,20 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
-import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
-import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
 
-import static com.chess.engine.board.Move.*;
+public final class Bishop extends Piece {
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+    private static final Bishop[] CACHED_BISHOPS = fillCache(new Bishop[CACHE_SIZE], Bishop::new);
 
-public class Bishop extends Piece {
-
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -7, 7, 9};
-
-    public Bishop(final Alliance pieceAlliance, final int piecePosition) {
-        super(PieceType.BISHOP, piecePosition, pieceAlliance, true);
-    }
-
-    public Bishop(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+    private Bishop(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.BISHOP, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isEighthColumnExclusion(
-                                candidateDestinationCoordinate, candidateCoordinateOffset)
-                        || isFirstColumnExclusion(
-                                candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile =
-                            board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(
-                                    new MajorAttackMove(
-                                            board,
-                                            this,
-                                            candidateDestinationCoordinate,
-                                            pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
-    }
-
-    @Override
-    public Bishop movePiece(Move move) {
-        return new Bishop(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
-    }
-
-    private static boolean isFirstColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition]
-                && (candidateOffset == -9 || candidateOffset == 7);
+    public static Bishop create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
     }
 
-    private static boolean isEighthColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition]
-                && (candidateOffset == -7 || candidateOffset == 9);
+    public static Bishop create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_BISHOPS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
     }
 }
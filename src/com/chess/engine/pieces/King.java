@@ -1,67 +1,71 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-public class King extends Piece {
+public final class King extends Piece {
 
     private static final int[] CANDIDATE_MOVE_COORDINATE = {-9, -8, -7, -1, 1, 7, 8, 9};
+    private static final int[][] CANDIDATE_DESTINATIONS = computeCandidateDestinations();
 
-    public King(final Alliance pieceAlliance, final int piecePosition) {
-        super(PieceType.KING, piecePosition, pieceAlliance, true);
-    }
+    private static final King[] CACHED_KINGS = fillCache(new King[CACHE_SIZE], King::new);
 
-    public King(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+    private King(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.KING, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    @Override
-    public Collection<Move> calculateLegalMoves(Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>(10);
-
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
-            final int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
+    public static King create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
+    }
 
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
+    public static King create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_KINGS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
+    }
 
-                if (isFirstColumnExclusion(this.piecePosition, currentCandidateOffset)
-                        || isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                    continue;
-                }
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
+    Collection<Move> calculateKingMoves(final Board board) {
 
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                    if (this.pieceAlliance != pieceAlliance) {
-                        legalMoves.add(
-                                new Move.MajorAttackMove(
-                                        board,
-                                        this,
-                                        candidateDestinationCoordinate,
-                                        pieceAtDestination));
-                    }
-                }
+        final List<Move> legalMoves = new ArrayList<>(10);
+        final BitBoard bitBoard = board.getBitBoard();
+
+        for (final int candidateDestinationCoordinate : CANDIDATE_DESTINATIONS[this.piecePosition]) {
+            if (!bitBoard.isOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new Move.MajorMove(this, candidateDestinationCoordinate));
+            } else if (!bitBoard.isOccupiedBy(candidateDestinationCoordinate, this.pieceAlliance)) {
+                legalMoves.add(
+                        new Move.MajorAttackMove(
+                                this,
+                                candidateDestinationCoordinate,
+                                board.getPiece(candidateDestinationCoordinate)));
             }
         }
 
         return ImmutableList.copyOf(legalMoves);
     }
 
-    @Override
-    public King movePiece(Move move) {
-        return new King(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
+    private static int[][] computeCandidateDestinations() {
+        final int[][] candidateDestinations = new int[BoardUtils.NUM_TILES][];
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final List<Integer> destinations = new ArrayList<>(8);
+            for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
+                final int candidateDestinationCoordinate = position + currentCandidateOffset;
+                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)
+                        && !isFirstColumnExclusion(position, currentCandidateOffset)
+                        && !isEighthColumnExclusion(position, currentCandidateOffset)) {
+                    destinations.add(candidateDestinationCoordinate);
+                }
+            }
+            candidateDestinations[position] = Ints.toArray(destinations);
+        }
+        return candidateDestinations;
     }
 
     private static boolean isFirstColumnExclusion(
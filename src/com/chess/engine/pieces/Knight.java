@@ -1,62 +1,67 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import static com.chess.engine.board.Move.*;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class Knight extends Piece {
+public final class Knight extends Piece {
 
     private static final int[] CANDIDATE_MOVE_COORDINATES = {-17, -15, -10, -6, 6, 10, 15, 17};
+    private static final int[][] CANDIDATE_DESTINATIONS = computeCandidateDestinations();
 
-    public Knight(final Alliance pieceAlliance, final int piecePosition) {
-        super(PieceType.KNIGHT, piecePosition, pieceAlliance, true);
-    }
+    private static final Knight[] CACHED_KNIGHTS = fillCache(new Knight[CACHE_SIZE], Knight::new);
 
-    public Knight(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+    private Knight(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.KNIGHT, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    @Override
-    public List<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>(8);
-
-        for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition + currentCandidateOffset;
-            if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
+    public static Knight create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
+    }
 
-                if (isFirstColumnExclusion(this.piecePosition, currentCandidateOffset)
-                        || isSecondColumnExclusion(this.piecePosition, currentCandidateOffset)
-                        || isSeventhColumnExclusion(this.piecePosition, currentCandidateOffset)
-                        || isEighthColumnExclusion(this.piecePosition, currentCandidateOffset)) {
-                    continue;
-                }
+    public static Knight create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_KNIGHTS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
+    }
 
-                final Tile candidateDestinationTile = board.getTile(candidateDestinationCoordinate);
+    List<Move> calculateKnightMoves(final Board board) {
+        final List<Move> legalMoves = new ArrayList<>(8);
+        final BitBoard bitBoard = board.getBitBoard();
 
-                if (!candidateDestinationTile.isTileOccupied()) {
-                    legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                } else {
-                    final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                    final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                    if (this.pieceAlliance != pieceAlliance) {
-                        legalMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                    }
-                }
+        for (final int candidateDestinationCoordinate : CANDIDATE_DESTINATIONS[this.piecePosition]) {
+            if (!bitBoard.isOccupied(candidateDestinationCoordinate)) {
+                legalMoves.add(new MajorMove(this, candidateDestinationCoordinate));
+            } else if (!bitBoard.isOccupiedBy(candidateDestinationCoordinate, this.pieceAlliance)) {
+                legalMoves.add(new MajorAttackMove(this, candidateDestinationCoordinate, board.getPiece(candidateDestinationCoordinate)));
             }
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
-    @Override
-    public Knight movePiece(Move move) {
-        return new Knight(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
+    private static int[][] computeCandidateDestinations() {
+        final int[][] candidateDestinations = new int[BoardUtils.NUM_TILES][];
+        for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+            final List<Integer> destinations = new ArrayList<>(8);
+            for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
+                final int candidateDestinationCoordinate = position + currentCandidateOffset;
+                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)
+                        && !isFirstColumnExclusion(position, currentCandidateOffset)
+                        && !isSecondColumnExclusion(position, currentCandidateOffset)
+                        && !isSeventhColumnExclusion(position, currentCandidateOffset)
+                        && !isEighthColumnExclusion(position, currentCandidateOffset)) {
+                    destinations.add(candidateDestinationCoordinate);
+                }
+            }
+            candidateDestinations[position] = Ints.toArray(destinations);
+        }
+        return candidateDestinations;
     }
 
     private static boolean isFirstColumnExclusion(
@@ -1,10 +1,12 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -12,87 +14,111 @@ import java.util.List;
 
 import static com.chess.engine.board.Move.*;
 
-public class Pawn extends Piece {
+public final class Pawn extends Piece {
 
     private static final int[] CANDIDATE_MOVE_COORDINATE = {8, 16, 7, 9};
+    private static final int NO_DESTINATION = -1;
 
-    public Pawn(final Alliance pieceAlliance, final int piecePosition) {
-        super(PieceType.PAWN, piecePosition, pieceAlliance, true);
-    }
+    private static final int[][] PUSH_DESTINATIONS = computeOffsetDestinations(8);
+    private static final int[][] JUMP_DESTINATIONS = computeOffsetDestinations(16);
+    private static final int[][][] ATTACK_DESTINATIONS = computeAttackDestinations();
+
+    private static final Pawn[] CACHED_PAWNS = fillCache(new Pawn[CACHE_SIZE], Pawn::new);
 
-    public Pawn(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+    private Pawn(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.PAWN, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-        final List<Move> legalMoves = new ArrayList<>(10);
+    public static Pawn create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
+    }
 
-        for (final int currentCanadidateOffset : CANDIDATE_MOVE_COORDINATE) {
-            final int candidateDestinationCoordinate =
-                    this.piecePosition
-                            + (this.getPieceAlliance().getDirection() * currentCanadidateOffset);
+    public static Pawn create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_PAWNS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
+    }
+
+    Collection<Move> calculatePawnMoves(final Board board) {
+        final List<Move> legalMoves = new ArrayList<>(10);
+        final BitBoard bitBoard = board.getBitBoard();
+        final int allianceIndex = this.pieceAlliance.ordinal();
 
-            if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                continue;
+        final int pushDestinationCoordinate = PUSH_DESTINATIONS[allianceIndex][this.piecePosition];
+        if (pushDestinationCoordinate != NO_DESTINATION && !bitBoard.isOccupied(pushDestinationCoordinate)) {
+            if(this.pieceAlliance.isPawnPromotionSquare(pushDestinationCoordinate)) {
+                legalMoves.add(new PawnPromotion(new PawnMove(this, pushDestinationCoordinate)));
+            } else {
+                legalMoves.add(new PawnMove(this, pushDestinationCoordinate));
             }
+        }
 
-            if (currentCanadidateOffset == 8
-                    && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                if(this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                    legalMoves.add(new PawnPromotion(new PawnMove(board, this, candidateDestinationCoordinate)));
-                } else {
-                    legalMoves.add(new PawnMove(board, this, candidateDestinationCoordinate));
-                }
-            } else if (currentCanadidateOffset == 16
-                            && this.isFirstMove()) {
-                final int behindCandidateDestinationCoordinate =
-                        this.piecePosition + (this.pieceAlliance.getDirection() * 8);
-                if (!board.getTile(behindCandidateDestinationCoordinate).isTileOccupied()
-                        && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    legalMoves.add(new PawnJump(board, this, candidateDestinationCoordinate));
-                }
-            } else if ((currentCanadidateOffset == 7
-                            && !((BoardUtils.EIGHTH_COLUMN[this.piecePosition]
-                                            && this.getPieceAlliance().isWhite())
-                                    || (BoardUtils.FIRST_COLUMN[this.piecePosition]
-                                            && this.pieceAlliance.isBlack())))
-                    || (currentCanadidateOffset == 9
-                            && !((BoardUtils.EIGHTH_COLUMN[this.piecePosition]
-                                            && this.getPieceAlliance().isBlack())
-                                    || (BoardUtils.FIRST_COLUMN[this.piecePosition]
-                                            && this.pieceAlliance.isWhite())))) {
-                if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-                    final Piece pieceOnCandidate =
-                            board.getTile(candidateDestinationCoordinate).getPiece();
-                    if (this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                        if(this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
-                            legalMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate)));
-
-                        } else {
-                            legalMoves.add(new PawnAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                        }
-                    }
-                } else if(board.getEnPassantPawn() != null) {
-                    int multiplier = (currentCanadidateOffset == 7) ? 1 : -1;
-                    if(board.getEnPassantPawn().getPiecePosition() == (this.piecePosition + multiplier * (this.pieceAlliance.getOppositeDirection()))) {
-                        final Piece pieceOnCandidate = board.getEnPassantPawn();
-                        if(this.pieceAlliance != pieceOnCandidate.getPieceAlliance()) {
-                            legalMoves.add(new PawnEnPassantAttackMove(board, this, candidateDestinationCoordinate, pieceOnCandidate));
-                        }
+        final int jumpDestinationCoordinate = JUMP_DESTINATIONS[allianceIndex][this.piecePosition];
+        if (jumpDestinationCoordinate != NO_DESTINATION
+                && this.isFirstMove()
+                && !bitBoard.isOccupied(pushDestinationCoordinate)
+                && !bitBoard.isOccupied(jumpDestinationCoordinate)) {
+            legalMoves.add(new PawnJump(this, jumpDestinationCoordinate));
+        }
+
+        for (final int candidateDestinationCoordinate : ATTACK_DESTINATIONS[allianceIndex][this.piecePosition]) {
+            if (bitBoard.isOccupied(candidateDestinationCoordinate)) {
+                if (!bitBoard.isOccupiedBy(candidateDestinationCoordinate, this.pieceAlliance)) {
+                    final Piece pieceOnCandidate = board.getPiece(candidateDestinationCoordinate);
+                    if(this.pieceAlliance.isPawnPromotionSquare(candidateDestinationCoordinate)) {
+                        legalMoves.add(new PawnPromotion(new PawnAttackMove(this, candidateDestinationCoordinate, pieceOnCandidate)));
+                    } else {
+                        legalMoves.add(new PawnAttackMove(this, candidateDestinationCoordinate, pieceOnCandidate));
                     }
                 }
+            } else if(candidateDestinationCoordinate == board.getEnPassantSquare()) {
+                final Pawn enPassantPawn = board.getEnPassantPawn();
+                if(this.pieceAlliance != enPassantPawn.getPieceAlliance()) {
+                    legalMoves.add(new PawnEnPassantAttackMove(this, candidateDestinationCoordinate, enPassantPawn));
+                }
             }
         }
         return ImmutableList.copyOf(legalMoves);
     }
 
-    @Override
-    public Pawn movePiece(Move move) {
-        return new Pawn(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
+    public Piece getPromotionPiece() {
+        return Queen.create(this.pieceAlliance, this.piecePosition, false);
     }
 
-    public Piece getPromotionPiece() {
-        return new Queen(this.pieceAlliance, this.piecePosition, false);
+    private static int[][] computeOffsetDestinations(final int offset) {
+        final int[][] offsetDestinations = new int[Alliance.values().length][BoardUtils.NUM_TILES];
+        for (final Alliance alliance : Alliance.values()) {
+            for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                final int candidateDestinationCoordinate = position + (alliance.getDirection() * offset);
+                offsetDestinations[alliance.ordinal()][position] =
+                        BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate) ? candidateDestinationCoordinate : NO_DESTINATION;
+            }
+        }
+        return offsetDestinations;
+    }
+
+    private static int[][][] computeAttackDestinations() {
+        final int[][][] attackDestinations = new int[Alliance.values().length][BoardUtils.NUM_TILES][];
+        for (final Alliance alliance : Alliance.values()) {
+            for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+                final List<Integer> destinations = new ArrayList<>(2);
+                for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATE) {
+                    final int candidateDestinationCoordinate = position + (alliance.getDirection() * currentCandidateOffset);
+                    if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)
+                            && isAttackOffset(alliance, position, currentCandidateOffset)) {
+                        destinations.add(candidateDestinationCoordinate);
+                    }
+                }
+                attackDestinations[alliance.ordinal()][position] = Ints.toArray(destinations);
+            }
+        }
+        return attackDestinations;
+    }
+
+    private static boolean isAttackOffset(final Alliance alliance, final int position, final int candidateOffset) {
+        return (candidateOffset == 7
+                        && !((BoardUtils.EIGHTH_COLUMN[position] && alliance.isWhite())
+                                || (BoardUtils.FIRST_COLUMN[position] && alliance.isBlack())))
+                || (candidateOffset == 9
+                        && !((BoardUtils.EIGHTH_COLUMN[position] && alliance.isBlack())
+                                || (BoardUtils.FIRST_COLUMN[position] && alliance.isWhite())));
     }
 }
@@ -1,19 +1,29 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.MagicBitBoards;
 import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+
+import static com.chess.engine.board.Move.*;
 
 public abstract class Piece {
 
     protected final PieceType pieceType;
     protected final int piecePosition;
     protected final Alliance pieceAlliance;
-    protected boolean isFirstMove;
+    protected final boolean isFirstMove;
     private final int cachedHashCode;
 
+    // every (alliance, square, first move) combination of a piece type is built once and shared
+    static final int CACHE_SIZE = 2 * 64 * 2;
+
     Piece(final PieceType pieceType, final int piecePosition, final Alliance pieceAlliance, final boolean isFirstMove) {
         this.pieceAlliance = pieceAlliance;
         this.piecePosition = piecePosition;
@@ -35,21 +45,6 @@ public abstract class Piece {
         return this.pieceType.toString();
     }
 
-    @Override
-    public boolean equals(final Object other) {
-        if (this == other) {
-            return true;
-        }
-        if (!(other instanceof Piece)) {
-            return false;
-        }
-        final Piece otherPiece = (Piece) other;
-        return piecePosition == otherPiece.getPiecePosition()
-                && pieceType == otherPiece.getPieceType()
-                && pieceAlliance == otherPiece.getPieceAlliance()
-                && isFirstMove == otherPiece.isFirstMove();
-    }
-
     @Override
     public int hashCode() {
         return this.cachedHashCode;
@@ -75,82 +70,110 @@ public abstract class Piece {
         return this.pieceType.getPieceValue();
     }
 
-    public abstract Collection<Move> calculateLegalMoves(final Board board);
-
-    public abstract Piece movePiece(Move move);
+    // one switch on the type keeps the generation call site monomorphic across the six piece classes
+    public final Collection<Move> calculateLegalMoves(final Board board) {
+        switch (this.pieceType) {
+            case PAWN:
+                return ((Pawn) this).calculatePawnMoves(board);
+            case KNIGHT:
+                return ((Knight) this).calculateKnightMoves(board);
+            case BISHOP:
+                return ImmutableList.copyOf(calculateMovesToDestinations(board,
+                        MagicBitBoards.bishopAttacks(this.piecePosition, board.getBitBoard().getOccupancy())));
+            case ROOK:
+                return ImmutableList.copyOf(calculateMovesToDestinations(board,
+                        MagicBitBoards.rookAttacks(this.piecePosition, board.getBitBoard().getOccupancy())));
+            case QUEEN:
+                return ImmutableList.copyOf(calculateMovesToDestinations(board,
+                        MagicBitBoards.queenAttacks(this.piecePosition, board.getBitBoard().getOccupancy())));
+            case KING:
+                return ((King) this).calculateKingMoves(board);
+            default:
+                throw new RuntimeException("Unknown piece type " + this.pieceType);
+        }
+    }
 
-    public enum PieceType {
-        PAWN("P", 100) {
-            @Override
-            public boolean isKing() {
-                return false;
+    protected List<Move> calculateMovesToDestinations(final Board board, final long destinations) {
+        final BitBoard bitBoard = board.getBitBoard();
+        final List<Move> legalMoves = new ArrayList<>(Long.bitCount(destinations));
+        long remaining = destinations & ~bitBoard.getOccupancy(this.pieceAlliance);
+        while (remaining != 0) {
+            final int destinationCoordinate = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            if (!bitBoard.isOccupied(destinationCoordinate)) {
+                legalMoves.add(new MajorMove(this, destinationCoordinate));
+            } else {
+                legalMoves.add(new MajorAttackMove(this, destinationCoordinate, board.getPiece(destinationCoordinate)));
             }
+        }
+        return legalMoves;
+    }
 
-            @Override
-            public boolean isRook() {
-                return false;
-            }
-        },
-        KNIGHT("N", 300) {
-            @Override
-            public boolean isKing() {
-                return false;
-            }
+    public final Piece movePiece(final Move move) {
+        return create(this.pieceType, this.pieceAlliance, move.getDestinationCoordinate(), false);
+    }
 
-            @Override
-            public boolean isRook() {
-                return false;
-            }
-        },
-        BISHOP("B", 300) {
-            @Override
-            public boolean isKing() {
-                return false;
-            }
+    public static Piece create(final PieceType pieceType,
+                               final Alliance pieceAlliance,
+                               final int piecePosition,
+                               final boolean isFirstMove) {
+        switch (pieceType) {
+            case PAWN:
+                return Pawn.create(pieceAlliance, piecePosition, isFirstMove);
+            case KNIGHT:
+                return Knight.create(pieceAlliance, piecePosition, isFirstMove);
+            case BISHOP:
+                return Bishop.create(pieceAlliance, piecePosition, isFirstMove);
+            case ROOK:
+                return Rook.create(pieceAlliance, piecePosition, isFirstMove);
+            case QUEEN:
+                return Queen.create(pieceAlliance, piecePosition, isFirstMove);
+            case KING:
+                return King.create(pieceAlliance, piecePosition, isFirstMove);
+            default:
+                throw new RuntimeException("Unknown piece type " + pieceType);
+        }
+    }
 
-            @Override
-            public boolean isRook() {
-                return false;
-            }
-        },
-        ROOK("R", 500) {
-            @Override
-            public boolean isKing() {
-                return false;
-            }
+    static int cacheIndex(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return ((pieceAlliance.ordinal() * 64 + piecePosition) << 1) | (isFirstMove ? 1 : 0);
+    }
 
-            @Override
-            public boolean isRook() {
-                return true;
-            }
-        },
-        QUEEN("Q", 900) {
-            @Override
-            public boolean isKing() {
-                return false;
-            }
-            @Override
-            public boolean isRook() {
-                return false;
-            }
-        },
-        KING("K", 100000) {
-            @Override
-            public boolean isKing() {
-                return true;
-            }
-            @Override
-            public boolean isRook() {
-                return false;
+    static <T extends Piece> T[] fillCache(final T[] cache, final PieceConstructor<T> constructor) {
+        for (final Alliance alliance : Alliance.values()) {
+            for (int position = 0; position < 64; position++) {
+                cache[cacheIndex(alliance, position, true)] = constructor.construct(alliance, position, true);
+                cache[cacheIndex(alliance, position, false)] = constructor.construct(alliance, position, false);
             }
-        };
+        }
+        return cache;
+    }
+
+    interface PieceConstructor<T extends Piece> {
+        T construct(Alliance pieceAlliance, int piecePosition, boolean isFirstMove);
+    }
+
+    public enum PieceType {
+        PAWN("P", 100, false, false),
+        KNIGHT("N", 300, false, false),
+        BISHOP("B", 300, false, false),
+        ROOK("R", 500, false, true),
+        QUEEN("Q", 900, false, false),
+        KING("K", 100000, true, false);
 
         private final int pieceValue;
         private final String pieceName;
+        private final boolean isKing;
+        private final boolean isRook;
 
-        PieceType(final String pieceName, final int pieceValue) {
+        PieceType(final String pieceName,
+                  final int pieceValue,
+                  final boolean isKing,
+                  final boolean isRook) {
             this.pieceName = pieceName;
             this.pieceValue = pieceValue;
+            this.isKing = isKing;
+            this.isRook = isRook;
         }
 
         @Override
@@ -158,9 +181,13 @@ public abstract class Piece {
             return this.pieceName;
         }
 
-        public abstract boolean isKing();
+        public boolean isKing() {
+            return this.isKing;
+        }
 
-        public abstract boolean isRook();
+        public boolean isRook() {
+            return this.isRook;
+        }
 
         public int getPieceValue() {
             return this.pieceValue;
@@ -1,81 +1,20 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
-import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
-import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+public final class Queen extends Piece {
 
-public class Queen extends Piece {
+    private static final Queen[] CACHED_QUEENS = fillCache(new Queen[CACHE_SIZE], Queen::new);
 
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
-
-    public Queen(final Alliance pieceAlliance,final int piecePosition) {
-        super(PieceType.QUEEN, piecePosition, pieceAlliance, true);
-    }
-
-    public Queen(final Alliance pieceAlliance,final int piecePosition, final boolean isFirstMove) {
+    private Queen(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.QUEEN, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>(32);
-
-        for (final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isEighthColumnExclusion(
-                        candidateDestinationCoordinate, candidateCoordinateOffset)
-                        || isFirstColumnExclusion(
-                        candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile =
-                            board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(
-                                    new Move.MajorAttackMove(
-                                            board,
-                                            this,
-                                            candidateDestinationCoordinate,
-                                            pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
-    }
-
-    @Override
-    public Queen movePiece(Move move) {
-        return new Queen(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
-    }
-
-    private static boolean isFirstColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition]
-                && (candidateOffset == -1 || candidateOffset == -9 || candidateOffset == 7);
+    public static Queen create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
     }
 
-    private static boolean isEighthColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition]
-                && (candidateOffset == 1 || candidateOffset == -7 || candidateOffset == 9);
+    public static Queen create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_QUEENS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
     }
 }
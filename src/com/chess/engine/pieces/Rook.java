@@ -1,79 +1,20 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Alliance;
-import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
-import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
-import com.google.common.collect.ImmutableList;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+public final class Rook extends Piece {
 
-public class Rook extends Piece {
-    public Rook(final Alliance pieceAlliance, final int piecePosition) {
-        super(PieceType.ROOK, piecePosition, pieceAlliance, true);
-    }
+    private static final Rook[] CACHED_ROOKS = fillCache(new Rook[CACHE_SIZE], Rook::new);
 
-    public Rook(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+    private Rook(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
         super(PieceType.ROOK, piecePosition, pieceAlliance, isFirstMove);
     }
 
-    private static final int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-8, -1, 1, 8};
-    @Override
-    public Collection<Move> calculateLegalMoves(final Board board) {
-
-        final List<Move> legalMoves = new ArrayList<>(16);
-
-        for (final int candidateCoordinateOffset : CANDIDATE_MOVE_VECTOR_COORDINATES) {
-            int candidateDestinationCoordinate = this.piecePosition;
-            while (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isEighthColumnExclusion(
-                        candidateDestinationCoordinate, candidateCoordinateOffset)
-                        || isFirstColumnExclusion(
-                        candidateDestinationCoordinate, candidateCoordinateOffset)) {
-                    break;
-                }
-                candidateDestinationCoordinate += candidateCoordinateOffset;
-                if (BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Tile candidateDestinationTile =
-                            board.getTile(candidateDestinationCoordinate);
-                    if (!candidateDestinationTile.isTileOccupied()) {
-                        legalMoves.add(new Move.MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Piece pieceAtDestination = candidateDestinationTile.getPiece();
-                        final Alliance pieceAlliance = pieceAtDestination.getPieceAlliance();
-                        if (this.pieceAlliance != pieceAlliance) {
-                            legalMoves.add(
-                                    new Move.MajorAttackMove(
-                                            board,
-                                            this,
-                                            candidateDestinationCoordinate,
-                                            pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
-    }
-
-    @Override
-    public Rook movePiece(Move move) {
-        return new Rook(move.getMovedPiece().getPieceAlliance(), move.getDestinationCoordinate(), false);
-    }
-
-    private static boolean isFirstColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition]
-                && (candidateOffset == -1);
+    public static Rook create(final Alliance pieceAlliance, final int piecePosition) {
+        return create(pieceAlliance, piecePosition, true);
     }
 
-    private static boolean isEighthColumnExclusion(
-            final int currentPosition, final int candidateOffset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition]
-                && (candidateOffset == 1);
+    public static Rook create(final Alliance pieceAlliance, final int piecePosition, final boolean isFirstMove) {
+        return CACHED_ROOKS[cacheIndex(pieceAlliance, piecePosition, isFirstMove)];
     }
 }
@@ -1,9 +1,9 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 import com.google.common.collect.ImmutableList;
@@ -12,12 +12,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import static com.chess.engine.board.BoardUtils.BLACK_KING_SIDE_CASTLE;
+import static com.chess.engine.board.BoardUtils.BLACK_QUEEN_SIDE_CASTLE;
+
 public class BlackPlayer extends Player {
-    public BlackPlayer(
-            final Board board,
-            final Collection<Move> whiteStandardLegalMoves,
-            final Collection<Move> blackStandardLegalMoves) {
-        super(board, blackStandardLegalMoves, whiteStandardLegalMoves);
+
+    // squares that must be empty; the king's own path is checked for attacks separately
+    private static final long KING_SIDE_CASTLE_PATH = BitBoard.squareMask(5) | BitBoard.squareMask(6);
+    private static final long QUEEN_SIDE_CASTLE_PATH = BitBoard.squareMask(1) | BitBoard.squareMask(2) | BitBoard.squareMask(3);
+
+    public BlackPlayer(final Board board) {
+        super(board);
+    }
+
+    @Override
+    protected Collection<Move> getStandardLegalMoves() {
+        return this.board.getBlackStandardLegalMoves();
     }
 
     @Override
@@ -36,42 +46,24 @@ public class BlackPlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
         final List<Move> kingCastles = new ArrayList<>();
+        final int castlingRights = this.board.getCastlingRights();
 
-        if(this.playerKing.isFirstMove() && !this.isInCheck()) {
-            // whites king side castle
-            if(!this.board.getTile(5).isTileOccupied() && !this.board.getTile(6).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(7);
-                if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    // Checking is rook might be redundant
-                    if(Player.calculateAttacksOnTile(5, opponentsLegals).isEmpty() && Player.calculateAttacksOnTile(6, opponentsLegals).isEmpty() && rookTile.getPiece().getPieceType().isRook()) {
-                        kingCastles.add(new Move.KingSideCastleMove(
-                                this.board,
-                                this.playerKing,
-                                6,
-                                (Rook) rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
-                                5));
-                    }
-                }
+        // a right survives only while neither the king nor that rook has moved, so both are on their squares
+        if ((castlingRights & (BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE)) != 0 && !isAttackedByOpponent(4)) {
+            final long occupancy = this.board.getBitBoard().getOccupancy();
+            if ((castlingRights & BLACK_KING_SIDE_CASTLE) != 0
+                    && (occupancy & KING_SIDE_CASTLE_PATH) == 0
+                    && !isAttackedByOpponent(5)
+                    && !isAttackedByOpponent(6)) {
+                kingCastles.add(new Move.KingSideCastleMove(this.playerKing, 6, (Rook) this.board.getPiece(7), 7, 5));
             }
-
-            if(!this.board.getTile(1).isTileOccupied() && !this.board.getTile(2).isTileOccupied() && !this.board.getTile(3).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(0);
-                if(rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    // Checking is rook might be redundant
-                    if(Player.calculateAttacksOnTile(1, opponentsLegals).isEmpty() && Player.calculateAttacksOnTile(2, opponentsLegals).isEmpty() && Player.calculateAttacksOnTile(3, opponentsLegals).isEmpty() && rookTile.getPiece().getPieceType().isRook()) {
-                        // TODO ADD A CASTLEMOVE;
-                        kingCastles.add(new Move.QueenSideCastleMove(
-                                this.board,
-                                this.playerKing,
-                                2,
-                                (Rook) rookTile.getPiece(),
-                                rookTile.getTileCoordinate(),
-                                3));
-                    }
-                }
+            if ((castlingRights & BLACK_QUEEN_SIDE_CASTLE) != 0
+                    && (occupancy & QUEEN_SIDE_CASTLE_PATH) == 0
+                    && !isAttackedByOpponent(3)
+                    && !isAttackedByOpponent(2)) {
+                kingCastles.add(new Move.QueenSideCastleMove(this.playerKing, 2, (Rook) this.board.getPiece(0), 0, 3));
             }
         }
         return ImmutableList.copyOf(kingCastles);
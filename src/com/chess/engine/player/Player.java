@@ -3,26 +3,25 @@ package com.chess.engine.player;
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveIndex;
+import com.chess.engine.board.Position;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public abstract class Player {
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
-    private final boolean isInCheck;
 
-    Player(final Board board, final Collection<Move> legalMoves, final Collection<Move> opponentMoves) {
+    private Collection<Move> legalMoves;
+    private MoveIndex legalMoveIndex;
+
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves, calculateKingCastles(legalMoves, opponentMoves)));
-        this.isInCheck = !Player.calculateAttacksOnTile(this.getPlayerKing().getPiecePosition(), opponentMoves).isEmpty();
     }
 
     public King getPlayerKing() {
@@ -30,53 +29,54 @@ public abstract class Player {
     }
 
     public Collection<Move> getLegalMoves() {
-        return this.legalMoves;
+        Collection<Move> legalMoves = this.legalMoves;
+        if (legalMoves == null) {
+            final Collection<Move> standardLegalMoves = getStandardLegalMoves();
+            legalMoves = ImmutableList.copyOf(Iterables.concat(standardLegalMoves, calculateKingCastles(standardLegalMoves)));
+            this.legalMoves = legalMoves;
+        }
+        return legalMoves;
     }
 
-
-    protected static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMoves = new ArrayList<>();
-        for (final Move move : moves) {
-            if(piecePosition == move.getDestinationCoordinate()) {
-                attackMoves.add(move);
-            }
+    public Move findLegalMove(final int currentCoordinate, final int destinationCoordinate) {
+        MoveIndex legalMoveIndex = this.legalMoveIndex;
+        if (legalMoveIndex == null) {
+            legalMoveIndex = new MoveIndex(getLegalMoves());
+            this.legalMoveIndex = legalMoveIndex;
         }
-        return ImmutableList.copyOf(attackMoves);
+        return legalMoveIndex.get(currentCoordinate, destinationCoordinate);
+    }
+
+    protected boolean isAttackedByOpponent(final int square) {
+        return this.board.getBitBoard().isSquareAttacked(square, getOpponent().getAlliance());
     }
 
     private King establishKing() {
-        for (final Piece piece : getActivePieces()) {
-            if (piece.getPieceType().isKing()) {
-                return (King) piece;
-            }
+        final int kingSquare = this.board.getKingSquare(getAlliance());
+        if (kingSquare == -1) {
+            throw new RuntimeException(" No king!!!!");
         }
-        throw new RuntimeException(" No king!!!!");
+        return (King) this.board.getPiece(kingSquare);
     }
 
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        return move.equals(findLegalMove(move.getCurrentCoordinate(), move.getDestinationCoordinate()));
     }
 
     public boolean isInCheck() {
-        return this.isInCheck;
+        return isAttackedByOpponent(this.playerKing.getPiecePosition());
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck && !hasEscapeMoves();
+        return isInCheck() && !hasEscapeMoves();
     }
 
     public boolean isInStaleMate() {
-        return !this.isInCheck && !hasEscapeMoves();
+        return !isInCheck() && !hasEscapeMoves();
     }
 
     private boolean hasEscapeMoves() {
-        for(final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if(transition.getMoveStatus().isDone()) {
-                return true;
-            }
-        }
-        return false;
+        return new Position(this.board, getAlliance()).hasLegalMoves();
     }
 
     public boolean isCastled() {
@@ -89,19 +89,18 @@ public abstract class Player {
             return new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE);
         }
 
-        final Board transitionBoard = move.execute();
-
-        final Collection<Move> kingAttacks = Player.calculateAttacksOnTile(transitionBoard.getCurrentPlayer().getOpponent().getPlayerKing().getPiecePosition(), transitionBoard.getCurrentPlayer().getLegalMoves());
+        final Board transitionBoard = move.execute(this.board);
 
-        if(!kingAttacks.isEmpty()) {
+        if(transitionBoard.getCurrentPlayer().getOpponent().isInCheck()) {
             return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
         }
 
         return new MoveTransition(transitionBoard, move, MoveStatus.DONE);
     }
 
+    protected abstract Collection<Move> getStandardLegalMoves();
     public abstract Collection<Piece> getActivePieces();
     public abstract Alliance getAlliance();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals, Collection<Move> opponentsLegals);
+    protected abstract Collection<Move> calculateKingCastles(Collection<Move> playerLegals);
 }
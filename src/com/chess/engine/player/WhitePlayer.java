@@ -1,11 +1,11 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Move.KingSideCastleMove;
 import com.chess.engine.board.Move.QueenSideCastleMove;
-import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.pieces.Rook;
 import com.google.common.collect.ImmutableList;
@@ -14,12 +14,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import static com.chess.engine.board.BoardUtils.WHITE_KING_SIDE_CASTLE;
+import static com.chess.engine.board.BoardUtils.WHITE_QUEEN_SIDE_CASTLE;
+
 public class WhitePlayer extends Player {
-    public WhitePlayer(
-            final Board board,
-            final Collection<Move> whiteStandardLegalMoves,
-            final Collection<Move> blackStandardLegalMoves) {
-        super(board, whiteStandardLegalMoves, blackStandardLegalMoves);
+
+    // squares that must be empty; the king's own path is checked for attacks separately
+    private static final long KING_SIDE_CASTLE_PATH = BitBoard.squareMask(61) | BitBoard.squareMask(62);
+    private static final long QUEEN_SIDE_CASTLE_PATH = BitBoard.squareMask(57) | BitBoard.squareMask(58) | BitBoard.squareMask(59);
+
+    public WhitePlayer(final Board board) {
+        super(board);
+    }
+
+    @Override
+    protected Collection<Move> getStandardLegalMoves() {
+        return this.board.getWhiteStandardLegalMoves();
     }
 
     @Override
@@ -38,45 +48,24 @@ public class WhitePlayer extends Player {
     }
 
     @Override
-    protected Collection<Move> calculateKingCastles(
-            final Collection<Move> playerLegals, final Collection<Move> opponentsLegals) {
+    protected Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
         final List<Move> kingCastles = new ArrayList<>();
+        final int castlingRights = this.board.getCastlingRights();
 
-        if (this.playerKing.isFirstMove() && !this.isInCheck()) {
-            // whites king side castle
-            if (!this.board.getTile(61).isTileOccupied()
-                    && !this.board.getTile(62).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(63);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    // Checking is rook might be redundant
-                    if (Player.calculateAttacksOnTile(61, opponentsLegals).isEmpty()
-                            && Player.calculateAttacksOnTile(62, opponentsLegals).isEmpty()
-                            && rookTile.getPiece().getPieceType().isRook()) {
-                        kingCastles.add(
-                                new KingSideCastleMove(
-                                        this.board,
-                                        this.playerKing,
-                                        62,
-                                        (Rook) rookTile.getPiece(),
-                                        rookTile.getTileCoordinate(),
-                                        61));
-                    }
-                }
+        // a right survives only while neither the king nor that rook has moved, so both are on their squares
+        if ((castlingRights & (WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE)) != 0 && !isAttackedByOpponent(60)) {
+            final long occupancy = this.board.getBitBoard().getOccupancy();
+            if ((castlingRights & WHITE_KING_SIDE_CASTLE) != 0
+                    && (occupancy & KING_SIDE_CASTLE_PATH) == 0
+                    && !isAttackedByOpponent(61)
+                    && !isAttackedByOpponent(62)) {
+                kingCastles.add(new KingSideCastleMove(this.playerKing, 62, (Rook) this.board.getPiece(63), 63, 61));
             }
-
-            if (!this.board.getTile(59).isTileOccupied()
-                    && !this.board.getTile(58).isTileOccupied()
-                    && !this.board.getTile(57).isTileOccupied()) {
-                final Tile rookTile = this.board.getTile(56);
-                if (rookTile.isTileOccupied() && rookTile.getPiece().isFirstMove()) {
-                    // Checking is rook might be redundant
-                    if (Player.calculateAttacksOnTile(59, opponentsLegals).isEmpty()
-                            && Player.calculateAttacksOnTile(58, opponentsLegals).isEmpty()
-                            && Player.calculateAttacksOnTile(57, opponentsLegals).isEmpty()
-                            && rookTile.getPiece().getPieceType().isRook()) {
-                        kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, 58, (Rook)rookTile.getPiece(), rookTile.getTileCoordinate(), 59));
-                    }
-                }
+            if ((castlingRights & WHITE_QUEEN_SIDE_CASTLE) != 0
+                    && (occupancy & QUEEN_SIDE_CASTLE_PATH) == 0
+                    && !isAttackedByOpponent(59)
+                    && !isAttackedByOpponent(58)) {
+                kingCastles.add(new QueenSideCastleMove(this.playerKing, 58, (Rook) this.board.getPiece(56), 56, 59));
             }
         }
         return ImmutableList.copyOf(kingCastles);
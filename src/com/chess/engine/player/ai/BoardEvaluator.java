@@ -1,8 +1,11 @@
 package com.chess.engine.player.ai;
 
 import com.chess.engine.board.Board;
+import com.chess.engine.board.Position;
 
 public interface BoardEvaluator {
 
     int evaluate(Board board, int depth);
+
+    int evaluate(Position position, int depth);
 }
@@ -1,54 +1,60 @@
 package com.chess.engine.player.ai;
 
 import com.chess.engine.board.Board;
-import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.Position;
 import com.chess.engine.player.MoveTransition;
-import com.google.common.collect.ComparisonChain;
-import com.google.common.collect.Ordering;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MiniMax implements MoveStrategy {
 
-    private final MoveSorter moveSorter;
-
-    private enum MoveSorter {
-
-        SORT {
-            @Override
-            Collection<Move> sort(final Collection<Move> moves) {
-                return Ordering.from(SMART_SORT).immutableSortedCopy(moves);
-            }
-        };
-
-        public static Comparator<Move> SMART_SORT = new Comparator<Move>() {
-            @Override
-            public int compare(final Move move1, final Move move2) {
-                return ComparisonChain.start()
-                        .compareTrueFirst(move1.isAttack(), move2.isAttack())
-                        .compareTrueFirst(move1.isCastlingMove(), move2.isCastlingMove())
-                        .compare(move2.getMovedPiece().getPieceValue(), move1.getMovedPiece().getPieceValue())
-                        .result();
-            }
-        };
-
-        abstract Collection<Move> sort(Collection<Move> moves);
-    }
-
+    private static final int DEFAULT_HASH_SIZE_MB = 64;
+    private static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+    // not Integer.MIN_VALUE, which has no negation
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // allowance for positional swings when delta pruning captures in quiescence
+    private static final int DELTA_MARGIN = 200;
+    // a move that failed low against another root move's score is worse than that move;
+    // equal moves keep their generation order, so the choice doesn't depend on which thread finished first
+    private static final Comparator<MinMaxRunner> BEST_FIRST =
+            Comparator.comparingInt((MinMaxRunner runner) -> runner.completedValue)
+                    .thenComparing(runner -> runner.completedExact)
+                    .reversed()
+                    .thenComparingInt(runner -> runner.index);
 
     private final BoardEvaluator boardEvaluator;
     private final int depth;
+    private final long softTimeLimit;
+    private final long hardTimeLimit;
+    private final TranspositionTable transpositionTable;
+    private volatile SearchContext currentSearch;
 
     public MiniMax(final int depth) {
+        this(depth, NO_TIME_LIMIT, NO_TIME_LIMIT);
+    }
+
+    /**
+     * Searches one ply deeper at a time until {@code depth} is reached. No new iteration starts once
+     * {@code softTimeLimit} milliseconds have passed, and the iteration in progress is abandoned once
+     * {@code hardTimeLimit} milliseconds have passed or {@link #stop()} is called; either way the move
+     * from the last completed iteration is returned. The first iteration always completes.
+     */
+    public MiniMax(final int depth, final long softTimeLimit, final long hardTimeLimit) {
+        this(depth, softTimeLimit, hardTimeLimit, DEFAULT_HASH_SIZE_MB);
+    }
+
+    public MiniMax(final int depth, final long softTimeLimit, final long hardTimeLimit, final int hashSizeInMegabytes) {
         this.boardEvaluator = new StandardBoardEvaluator();
         this.depth = depth;
-        this.moveSorter = MoveSorter.SORT;
+        this.softTimeLimit = softTimeLimit;
+        this.hardTimeLimit = hardTimeLimit;
+        this.transpositionTable = new TranspositionTable(hashSizeInMegabytes);
     }
 
     @Override
@@ -56,235 +62,344 @@ public class MiniMax implements MoveStrategy {
         return "Minimax";
     }
 
+    // stops the search in progress, if any; a later search is not affected
+    public void stop() {
+        final SearchContext search = this.currentSearch;
+        if(search != null) {
+            search.stopRequested = true;
+        }
+    }
+
+    /**
+     * Waits for a search in progress to finish, then forgets every position searched so far, for
+     * when a new game starts.
+     */
+    public synchronized void reset() {
+        this.transpositionTable.clear();
+    }
+
     @Override
-    public Move execute(Board board) {
-        //Move best_move_guaranteed = execute_2(board);
+    public Move execute(final Board board) {
+        return execute(board, this.depth);
+    }
 
+    // searches are serialised, so a game can keep one instance and its hash table across moves
+    public synchronized Move execute(final Board board, final int depth) {
         final long startTime = System.currentTimeMillis();
-        Move bestMove = null;
-        int highestSeenValue = Integer.MIN_VALUE;
-        int lowestSeenValue = Integer.MAX_VALUE;
-        int currentValue;
-
+        final SearchContext search = new SearchContext();
+        this.currentSearch = search;
+        this.transpositionTable.newSearch();
         System.out.println(board.getCurrentPlayer() + "THINKING with depth = " + depth);
 
-        ExecutorService executorService = Executors.newFixedThreadPool(8);
-
-        List<Callable<Integer>> runners = new ArrayList<>();
-        List<Move> all_valid_moves = new ArrayList<>();
+        // killers and history belong to the worker thread, so each root move it searches learns
+        // from the cutoffs found under the ones it searched before; a new search starts them afresh
+        final ThreadLocal<MovePicker[]> threadMovePickers = ThreadLocal.withInitial(MiniMax::createMovePickers);
+        final List<MinMaxRunner> runners = new ArrayList<>();
         for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
             final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
             if(moveTransition.getMoveStatus().isDone()) {
-                all_valid_moves.add(move);
-                MinMaxRunner minMaxRunner = new MinMaxRunner(moveTransition.getBoard());
-                runners.add(minMaxRunner);
+                runners.add(new MinMaxRunner(runners.size(), move, moveTransition.getBoard(), search, threadMovePickers));
             }
         }
-        List<Future<Integer>> results = new ArrayList<>();
-        try {
-            results = executorService.invokeAll(runners);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        if(runners.isEmpty()) {
+            this.currentSearch = null;
+            throw new RuntimeException("No legal moves for " + board.getCurrentPlayer());
         }
-        List<Integer> integer_results = new ArrayList<>();
-        for (Future<Integer> result : results) {
-            try {
-                integer_results.add(result.get());
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } catch (ExecutionException e) {
-                e.printStackTrace();
+        Move bestMove = null;
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            for(int currentDepth = 1; currentDepth <= depth; currentDepth++) {
+                for(final MinMaxRunner runner : runners) {
+                    runner.searchDepth = currentDepth - 1;
+                }
+                search.rootAlpha.set(-INFINITY);
+                // the first iteration ignores time limits and stop requests so there is a move to fall back on
+                search.stoppable = currentDepth > 1;
+                if(!searchIteration(executorService, runners, search, startTime, search.stoppable)) {
+                    break;
+                }
+                for(final MinMaxRunner runner : runners) {
+                    runner.completedValue = runner.value;
+                    runner.completedExact = !runner.failedLow;
+                }
+                // the next iteration starts with the best moves of this one
+                runners.sort(BEST_FIRST);
+                bestMove = runners.get(0).move;
+                if(search.stopRequested || elapsedSince(startTime) >= this.softTimeLimit) {
+                    break;
+                }
             }
-        }
-        int index = -1;
-        if (board.getCurrentPlayer().getAlliance().isBlack()) {
-            index =
-                    IntStream.range(0, integer_results.size())
-                            .reduce(
-                                    (i, j) ->
-                                            integer_results.get(i) < integer_results.get(j) ? i : j)
-                            .getAsInt();
-        } else {
-            index =
-                    IntStream.range(0, integer_results.size())
-                            .reduce(
-                                    (i, j) ->
-                                            integer_results.get(i) > integer_results.get(j) ? i : j)
-                            .getAsInt();
+        } finally {
+            // the search doesn't poll for interrupts, so abandon it and wait until every runner has
+            // unwound; none may touch the hash table once the next search starts
+            search.abandoned = true;
+            executorService.shutdownNow();
+            awaitTermination(executorService);
+            this.currentSearch = null;
         }
         System.out.println("Done thinking, took time " + (int)(System.currentTimeMillis() - startTime));
-        /*if (best_move_guaranteed != all_valid_moves.get(index)) {
-            System.out.println("THIS IS REALLY BAD");
-            System.out.println(best_move_guaranteed);
-            System.out.println(all_valid_moves.get(index));
-        }*/
-        return all_valid_moves.get(index);
+        if(bestMove == null) {
+            throw new RuntimeException("Search interrupted before its first iteration completed");
+        }
+        return bestMove;
     }
 
-
-    public Move execute_2(Board board) {
-
-        final long startTime = System.currentTimeMillis();
-        Move bestMove = null;
-        int highestSeenValue = Integer.MIN_VALUE;
-        int lowestSeenValue = Integer.MAX_VALUE;
-        int currentValue;
-
-        System.out.println(board.getCurrentPlayer() + "THINKING with depth = " + depth);
-        ExecutorService executorService = Executors.newFixedThreadPool(8);
-
-        List<Callable<Integer>> runners = new ArrayList<>();
-        List<Move> all_valid_moves = new ArrayList<>();
-        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if(moveTransition.getMoveStatus().isDone()) {
-                all_valid_moves.add(move);
-                MinMaxRunner_orig minMaxRunner = new MinMaxRunner_orig(moveTransition.getBoard());
-                runners.add(minMaxRunner);
-            }
-        }
-        List<Future<Integer>> results = new ArrayList<>();
+    private boolean searchIteration(final ExecutorService executorService,
+                                    final List<MinMaxRunner> runners,
+                                    final SearchContext search,
+                                    final long startTime,
+                                    final boolean timeLimited) {
         try {
-            results = executorService.invokeAll(runners);
+            if(!timeLimited || this.hardTimeLimit == NO_TIME_LIMIT) {
+                executorService.invokeAll(runners);
+            } else {
+                final long remaining = this.hardTimeLimit - elapsedSince(startTime);
+                if(remaining <= 0) {
+                    return false;
+                }
+                final List<Future<Integer>> results = executorService.invokeAll(runners, remaining, TimeUnit.MILLISECONDS);
+                for(final Future<Integer> result : results) {
+                    if(result.isCancelled()) {
+                        // let the runners still unwinding see that their results are unwanted
+                        search.abandoned = true;
+                        return false;
+                    }
+                }
+            }
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
+            return false;
         }
-        List<Integer> integer_results = new ArrayList<>();
-        for (Future<Integer> result : results) {
+        return !search.isStopped();
+    }
+
+    private static void awaitTermination(final ExecutorService executorService) {
+        boolean interrupted = false;
+        while(true) {
             try {
-                integer_results.add(result.get());
+                if(executorService.awaitTermination(1, TimeUnit.SECONDS)) {
+                    break;
+                }
             } catch (InterruptedException e) {
-                e.printStackTrace();
-            } catch (ExecutionException e) {
-                e.printStackTrace();
+                interrupted = true;
             }
         }
-        int index = -1;
-        if (board.getCurrentPlayer().getAlliance().isBlack()) {
-            index =
-                    IntStream.range(0, integer_results.size())
-                            .reduce(
-                                    (i, j) ->
-                                            integer_results.get(i) < integer_results.get(j) ? i : j)
-                            .getAsInt();
-        } else {
-            index =
-                    IntStream.range(0, integer_results.size())
-                            .reduce(
-                                    (i, j) ->
-                                            integer_results.get(i) > integer_results.get(j) ? i : j)
-                            .getAsInt();
+        if(interrupted) {
+            Thread.currentThread().interrupt();
         }
-        System.out.println("Done thinking, took time " + (int)(System.currentTimeMillis() - startTime));
-        return all_valid_moves.get(index);
     }
 
-    public class MinMaxRunner implements Callable<Integer> {
-
-        private final Board board;
-        public MinMaxRunner(final Board board) {
-            this.board = board;
-        }
+    private static long elapsedSince(final long startTime) {
+        return System.currentTimeMillis() - startTime;
+    }
 
-        @Override
-        public Integer call() throws Exception {
-            return board.getCurrentPlayer().getOpponent().getAlliance().isWhite()
-                    ? min(board, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE)
-                    : max(board, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    /**
+     * State shared by the runners of one call to {@link #execute(Board, int)}. Each search gets its
+     * own, so nothing a runner of an earlier search does can reach a later one.
+     */
+    private static final class SearchContext {
+
+        private final AtomicInteger rootAlpha = new AtomicInteger(-INFINITY);
+        // set when the iteration in progress has been abandoned and its runners should unwind
+        private volatile boolean abandoned;
+        // set by stop(); only iterations past the first obey it
+        private volatile boolean stopRequested;
+        private volatile boolean stoppable;
+
+        private boolean isStopped() {
+            return this.abandoned || (this.stopRequested && this.stoppable);
         }
     }
 
-    public class MinMaxRunner_orig implements Callable<Integer> {
+    public class MinMaxRunner implements Callable<Integer> {
 
-        private final Board board;
-        public MinMaxRunner_orig(final Board board) {
-            this.board = board;
+        private final int index;
+        private final Move move;
+        private final Position position;
+        private final SearchContext search;
+        private final ThreadLocal<MovePicker[]> threadMovePickers;
+        private int searchDepth;
+        private int value;
+        private boolean failedLow;
+        private int completedValue;
+        private boolean completedExact;
+
+        private MinMaxRunner(final int index,
+                             final Move move,
+                             final Board board,
+                             final SearchContext search,
+                             final ThreadLocal<MovePicker[]> threadMovePickers) {
+            this.index = index;
+            this.move = move;
+            this.position = new Position(board);
+            this.search = search;
+            this.threadMovePickers = threadMovePickers;
         }
 
+        // scores are from the point of view of the side choosing among the root moves
         @Override
         public Integer call() throws Exception {
-            return board.getCurrentPlayer().getOpponent().getAlliance().isWhite()
-                    ? min_orig(board, depth - 1)
-                    : max_orig(board, depth - 1);
-        }
-    }
-
-
-    public int min(final Board board, final int depth, int highest, int lowest) {
-        if(depth == 0 || isEndGameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
-        }
-        int lowestSeenValue = lowest;
-        for(final Move move : moveSorter.sort(board.getCurrentPlayer().getLegalMoves())) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if(moveTransition.getMoveStatus().isDone()) {
-                final int currentValue = max(moveTransition.getBoard(), depth-1, highest, lowestSeenValue);
-                if(currentValue <= lowestSeenValue) {
-                    lowestSeenValue = currentValue;
-                }
-                if(lowestSeenValue <= highest) {
-                    break;
+            final MovePicker[] movePickers = this.threadMovePickers.get();
+            final int alpha = search.rootAlpha.get();
+            int score;
+            if(alpha == -INFINITY) {
+                score = -search(search, position, movePickers, searchDepth, -INFINITY, INFINITY);
+            } else {
+                // another root move already has a score, so only prove whether this one matches it;
+                // moves that tie are scored exactly, so the tie-break sees all of them
+                score = -search(search, position, movePickers, searchDepth, -alpha, -alpha + 1);
+                if(score >= alpha) {
+                    score = -search(search, position, movePickers, searchDepth, -INFINITY, -alpha + 1);
                 }
             }
-        }
-        return lowestSeenValue;
-    }
-
-    public int min_orig(final Board board, final int depth) {
-        if(depth == 0 || isEndGameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
-        }
-        int lowestSeenValue = Integer.MAX_VALUE;
-        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if(moveTransition.getMoveStatus().isDone()) {
-                final int currentValue = max_orig(moveTransition.getBoard(), depth-1);
-                if(currentValue <= lowestSeenValue) {
-                    lowestSeenValue = currentValue;
-                }
+            this.failedLow = score < alpha;
+            if(!this.failedLow) {
+                search.rootAlpha.accumulateAndGet(score, Math::max);
             }
+            this.value = score;
+            return score;
         }
-        return lowestSeenValue;
     }
 
-    private static boolean isEndGameScenario(final Board board) {
-        return board.getCurrentPlayer().isInCheckMate() || board.getCurrentPlayer().isInStaleMate();
+    private static MovePicker[] createMovePickers() {
+        final MoveHistory moveHistory = new MoveHistory();
+        final MovePicker[] movePickers = new MovePicker[Position.MAX_PLY];
+        for (int i = 0; i < movePickers.length; i++) {
+            movePickers[i] = new MovePicker(moveHistory);
+        }
+        return movePickers;
     }
 
-    public int max(final Board board, final int depth, int highest, int lowest) {
-        if(depth == 0 || isEndGameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
+    /**
+     * Negamax alpha-beta with principal variation search: the first move gets the full window and
+     * the rest a null window, re-searched only when they fail high. Scores are from the point of view
+     * of the side to move.
+     */
+    private int search(final SearchContext search,
+                       final Position position,
+                       final MovePicker[] movePickers,
+                       final int depth,
+                       int alpha,
+                       final int beta) {
+        if(depth == 0) {
+            return quiescence(search, position, movePickers, alpha, beta);
         }
-        int highestSeenValue = highest;
-        for(final Move move : moveSorter.sort( board.getCurrentPlayer().getLegalMoves())) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if(moveTransition.getMoveStatus().isDone()) {
-                final int currentValue = min(moveTransition.getBoard(), depth-1, highestSeenValue, lowest);
-                if(currentValue >= highestSeenValue) {
-                    highestSeenValue = currentValue;
-                }
-                if(lowest <= highestSeenValue) {
-                    break;
+        final long zobristKey = position.getZobristKey();
+        final long entry = this.transpositionTable.probe(zobristKey);
+        if (entry != TranspositionTable.NO_ENTRY && TranspositionTable.getDepth(entry) >= depth) {
+            final int score = TranspositionTable.getScore(entry);
+            final int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+        final int hashMove = entry != TranspositionTable.NO_ENTRY ? TranspositionTable.getMove(entry) : MoveEncoding.NO_MOVE;
+        final MovePicker movePicker = movePickers[position.getPly()];
+        movePicker.init(position, hashMove);
+        final int originalAlpha = alpha;
+        int bestValue = -INFINITY;
+        int bestMove = MoveEncoding.NO_MOVE;
+        int move;
+        while((move = movePicker.nextMove()) != MoveEncoding.NO_MOVE) {
+            position.makeMove(move);
+            int score;
+            if(bestMove == MoveEncoding.NO_MOVE) {
+                score = -search(search, position, movePickers, depth - 1, -beta, -alpha);
+            } else {
+                score = -search(search, position, movePickers, depth - 1, -alpha - 1, -alpha);
+                if(score > alpha && score < beta) {
+                    score = -search(search, position, movePickers, depth - 1, -beta, -alpha);
                 }
             }
+            position.unmakeMove();
+            if(search.isStopped()) {
+                return 0;
+            }
+            if(bestMove == MoveEncoding.NO_MOVE || score > bestValue) {
+                bestValue = score;
+                bestMove = move;
+            }
+            if(bestValue > alpha) {
+                alpha = bestValue;
+            }
+            if(alpha >= beta) {
+                movePicker.recordCutoff(move, depth);
+                break;
+            }
         }
-        return highestSeenValue;
+        if(bestMove == MoveEncoding.NO_MOVE) {
+            return evaluate(position, depth);
+        }
+        final int bound = bestValue >= beta ? TranspositionTable.LOWER_BOUND
+                : bestValue > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        this.transpositionTable.store(zobristKey, depth, bound, bestValue, bestMove);
+        return bestValue;
     }
 
-    public int max_orig(final Board board, final int depth) {
-        if(depth == 0 || isEndGameScenario(board)) {
-            return this.boardEvaluator.evaluate(board, depth);
+    /**
+     * Plays out captures and promotions until the position is quiet, so the evaluation is never
+     * taken in the middle of an exchange. The side to move may stand pat on the static evaluation
+     * instead of capturing, unless it is in check, in which case every evasion is searched.
+     */
+    private int quiescence(final SearchContext search,
+                           final Position position,
+                           final MovePicker[] movePickers,
+                           int alpha,
+                           final int beta) {
+        final boolean inCheck = position.isInCheck();
+        if(position.getPly() >= Position.MAX_PLY - 1) {
+            return evaluate(position, 0);
         }
-        int highestSeenValue = Integer.MIN_VALUE;
-        for(final Move move : board.getCurrentPlayer().getLegalMoves()) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().makeMove(move);
-            if(moveTransition.getMoveStatus().isDone()) {
-                final int currentValue = min_orig(moveTransition.getBoard(), depth-1);
-                if(currentValue >= highestSeenValue) {
-                    highestSeenValue = currentValue;
+        int bestValue = -INFINITY;
+        int standPat = -INFINITY;
+        final MovePicker movePicker = movePickers[position.getPly()];
+        if(inCheck) {
+            movePicker.init(position, MoveEncoding.NO_MOVE);
+        } else {
+            standPat = evaluate(position, 0);
+            if(standPat >= beta) {
+                return standPat;
+            }
+            if(standPat > alpha) {
+                alpha = standPat;
+            }
+            bestValue = standPat;
+            movePicker.initCaptures(position);
+        }
+        boolean hasMoves = false;
+        int move;
+        while((move = movePicker.nextMove()) != MoveEncoding.NO_MOVE) {
+            hasMoves = true;
+            // delta pruning: even winning the piece outright wouldn't lift this line to alpha
+            if(!inCheck && standPat + MovePicker.materialGain(position, move) + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            position.makeMove(move);
+            final int score = -quiescence(search, position, movePickers, -beta, -alpha);
+            position.unmakeMove();
+            if(search.isStopped()) {
+                return 0;
+            }
+            if(score > bestValue) {
+                bestValue = score;
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta) {
+                        break;
+                    }
                 }
             }
         }
-        return highestSeenValue;
+        if(inCheck && !hasMoves) {
+            return evaluate(position, 0);
+        }
+        return bestValue;
+    }
+
+    private int evaluate(final Position position, final int depth) {
+        final int score = this.boardEvaluator.evaluate(position, depth);
+        return position.getSideToMove() == Position.WHITE ? score : -score;
     }
 }
@@ -0,0 +1,50 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.Position;
+
+/**
+ * Remembers which quiet moves caused beta cutoffs: two killer moves per ply, and a history score
+ * per side and (from, to) square pair. Each search thread keeps its own, so nothing is shared.
+ */
+public final class MoveHistory {
+
+    // scores are halved past this, so recent cutoffs outweigh old ones and stay below the castle bonus
+    private static final int HISTORY_LIMIT = 1 << 16;
+
+    private final int[] killers = new int[Position.MAX_PLY * 2];
+    private final int[] history = new int[2 * 64 * 64];
+
+    public int getFirstKiller(final int ply) {
+        return this.killers[ply * 2];
+    }
+
+    public int getSecondKiller(final int ply) {
+        return this.killers[ply * 2 + 1];
+    }
+
+    public int getHistory(final int sideToMove, final int move) {
+        return this.history[historyIndex(sideToMove, move)];
+    }
+
+    public void recordCutoff(final int sideToMove, final int ply, final int move, final int depth) {
+        if (MoveEncoding.isCapture(move) || MoveEncoding.isPromotion(move)) {
+            return;
+        }
+        if (this.killers[ply * 2] != move) {
+            this.killers[ply * 2 + 1] = this.killers[ply * 2];
+            this.killers[ply * 2] = move;
+        }
+        final int index = historyIndex(sideToMove, move);
+        this.history[index] += depth * depth;
+        if (this.history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < this.history.length; i++) {
+                this.history[i] >>= 1;
+            }
+        }
+    }
+
+    private static int historyIndex(final int sideToMove, final int move) {
+        return (sideToMove << 12) | (MoveEncoding.getFrom(move) << 6) | MoveEncoding.getTo(move);
+    }
+}
@@ -0,0 +1,189 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.Position;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Hands out the moves of one search node in stages: the hash move, then captures by most
+ * valuable victim and least valuable attacker, then the killer moves, then the quiet moves by
+ * history score.
+ * A stage is only generated once the ones before it are used up, and each stage only picks its
+ * best remaining move, so a node that cuts off early never generates or sorts the rest. Quiescence
+ * nodes only get the captures stage.
+ */
+public final class MovePicker {
+
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int DONE = 7;
+
+    private static final int[] PIECE_VALUES = initPieceValues();
+    private static final int CASTLE_BONUS = 1 << 20;
+
+    private final MoveList captures = new MoveList();
+    private final MoveList quiets = new MoveList();
+    private final MoveHistory moveHistory;
+    private Position position;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private boolean capturesOnly;
+    private int stage;
+    private int index;
+
+    public MovePicker(final MoveHistory moveHistory) {
+        this.moveHistory = moveHistory;
+    }
+
+    public void init(final Position position, final int hashMove) {
+        this.position = position;
+        this.hashMove = hashMove;
+        this.firstKiller = this.moveHistory.getFirstKiller(position.getPly());
+        this.secondKiller = this.moveHistory.getSecondKiller(position.getPly());
+        this.capturesOnly = false;
+        this.stage = HASH_MOVE;
+    }
+
+    // captures and promotions only, for quiescence search
+    public void initCaptures(final Position position) {
+        this.position = position;
+        this.hashMove = MoveEncoding.NO_MOVE;
+        this.firstKiller = MoveEncoding.NO_MOVE;
+        this.secondKiller = MoveEncoding.NO_MOVE;
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * Returns the next move to search, or {@link MoveEncoding#NO_MOVE} once every legal move
+     * has been handed out exactly once.
+     */
+    public int nextMove() {
+        while (true) {
+            switch (this.stage) {
+                case HASH_MOVE:
+                    this.stage = GENERATE_CAPTURES;
+                    if (this.position.isLegal(this.hashMove)) {
+                        return this.hashMove;
+                    }
+                    break;
+                case GENERATE_CAPTURES:
+                    this.position.generateCaptures(this.captures);
+                    for (int i = 0; i < this.captures.size(); i++) {
+                        this.captures.setScore(i, captureScore(this.captures.get(i)));
+                    }
+                    this.index = 0;
+                    this.stage = CAPTURES;
+                    break;
+                case CAPTURES: {
+                    final int move = pickBest(this.captures);
+                    if (move == MoveEncoding.NO_MOVE) {
+                        this.stage = this.capturesOnly ? DONE : FIRST_KILLER;
+                    } else if (move != this.hashMove) {
+                        return move;
+                    }
+                    break;
+                }
+                case FIRST_KILLER:
+                    this.stage = SECOND_KILLER;
+                    if (isUsableKiller(this.firstKiller)) {
+                        return this.firstKiller;
+                    }
+                    break;
+                case SECOND_KILLER:
+                    this.stage = GENERATE_QUIETS;
+                    if (this.secondKiller != this.firstKiller && isUsableKiller(this.secondKiller)) {
+                        return this.secondKiller;
+                    }
+                    break;
+                case GENERATE_QUIETS:
+                    this.position.generateQuietMoves(this.quiets);
+                    for (int i = 0; i < this.quiets.size(); i++) {
+                        this.quiets.setScore(i, quietScore(this.quiets.get(i)));
+                    }
+                    this.index = 0;
+                    this.stage = QUIETS;
+                    break;
+                case QUIETS: {
+                    final int move = pickBest(this.quiets);
+                    if (move == MoveEncoding.NO_MOVE) {
+                        this.stage = DONE;
+                    } else if (move != this.hashMove && move != this.firstKiller && move != this.secondKiller) {
+                        return move;
+                    }
+                    break;
+                }
+                default:
+                    return MoveEncoding.NO_MOVE;
+            }
+        }
+    }
+
+    private int pickBest(final MoveList moves) {
+        if (this.index >= moves.size()) {
+            return MoveEncoding.NO_MOVE;
+        }
+        int best = this.index;
+        for (int i = this.index + 1; i < moves.size(); i++) {
+            if (moves.getScore(i) > moves.getScore(best)) {
+                best = i;
+            }
+        }
+        moves.swap(this.index, best);
+        return moves.get(this.index++);
+    }
+
+    // killers are quiet by definition; a capture with the same squares is handed out with the captures
+    private boolean isUsableKiller(final int killer) {
+        return killer != this.hashMove
+                && !MoveEncoding.isCapture(killer)
+                && !MoveEncoding.isPromotion(killer)
+                && this.position.isLegal(killer);
+    }
+
+    private int captureScore(final int move) {
+        final int attacker = Position.pieceType(this.position.getPieceAt(MoveEncoding.getFrom(move)));
+        return materialGain(this.position, move) * 8 - attacker;
+    }
+
+    // the value of the captured piece plus the value of the promotion piece
+    static int materialGain(final Position position, final int move) {
+        final int victim = position.getPieceAt(MoveEncoding.getTo(move));
+        int gain = 0;
+        if (MoveEncoding.isEnPassant(move)) {
+            gain += PIECE_VALUES[Position.PAWN];
+        } else if (victim != Position.EMPTY) {
+            gain += PIECE_VALUES[Position.pieceType(victim)];
+        }
+        if (MoveEncoding.isPromotion(move)) {
+            gain += PIECE_VALUES[MoveEncoding.getPromotionType(move)];
+        }
+        return gain;
+    }
+
+    // call after the move has been taken back, so the position is the one it was picked from
+    public void recordCutoff(final int move, final int depth) {
+        this.moveHistory.recordCutoff(this.position.getSideToMove(), this.position.getPly(), move, depth);
+    }
+
+    private int quietScore(final int move) {
+        return (MoveEncoding.isCastle(move) ? CASTLE_BONUS : 0)
+                + this.moveHistory.getHistory(this.position.getSideToMove(), move);
+    }
+
+    private static int[] initPieceValues() {
+        final PieceType[] pieceTypes = PieceType.values();
+        final int[] pieceValues = new int[pieceTypes.length];
+        for (final PieceType pieceType : pieceTypes) {
+            pieceValues[pieceType.ordinal()] = pieceType.getPieceValue();
+        }
+        return pieceValues;
+    }
+}
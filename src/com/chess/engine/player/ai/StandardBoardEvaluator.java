@@ -1,7 +1,7 @@
 package com.chess.engine.player.ai;
 
 import com.chess.engine.board.Board;
-import com.chess.engine.pieces.Piece;
+import com.chess.engine.board.Position;
 import com.chess.engine.player.Player;
 
 public final class StandardBoardEvaluator implements BoardEvaluator {
@@ -15,8 +15,17 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
         return scorePlayer(board, board.getWhitePlayer(), depth) - scorePlayer(board, board.getBlackPlayer(), depth);
     }
 
+    @Override
+    public int evaluate(final Position position, final int depth) {
+        return scorePosition(position, Position.WHITE, depth) - scorePosition(position, Position.BLACK, depth);
+    }
+
+    private int scorePosition(final Position position, final int alliance, final int depth) {
+        return position.getMaterial(alliance) + mobility(position, alliance) + kingThreats(position, alliance, depth);
+    }
+
     private int scorePlayer(final Board board, final Player player, final int depth) {
-        return pieceValue(player) + mobility(player) + kingThreats(player, depth) + castle(player);
+        return board.getMaterial(player.getAlliance()) + mobility(player) + kingThreats(player, depth) + castle(player);
     }
 
     private static int kingThreats(final Player player,
@@ -24,6 +33,16 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
         return player.getOpponent().isInCheckMate() ? CHECK_MATE_BONUS  * depthBonus(depth) : check(player);
     }
 
+    private static int kingThreats(final Position position,
+                                   final int alliance,
+                                   final int depth) {
+        // only the side to move can be in check
+        if (position.getSideToMove() == alliance || !position.isInCheck()) {
+            return 0;
+        }
+        return position.hasLegalMoves() ? CHECK_BONUS : CHECK_MATE_BONUS * depthBonus(depth);
+    }
+
     private static int depthBonus(final int depth) {
         return depth == 0 ? 1 : 100 * depth;
     }
@@ -40,12 +59,8 @@ public final class StandardBoardEvaluator implements BoardEvaluator {
         return (int)((player.getLegalMoves().size() * 10.0f) / player.getOpponent().getLegalMoves().size());
     }
 
-    private static int pieceValue(final Player player) {
-        int pieceValueScore = 0;
-        for(final Piece piece : player.getActivePieces()) {
-            pieceValueScore += piece.getPieceValue();
-        }
-        return pieceValueScore;
+    private static int mobility(final Position position, final int alliance) {
+        return MOBILITY_MULTIPLIER * (int)((position.countMoves(alliance) * 10.0f) / position.countMoves(1 - alliance));
     }
 
     private static int castle(final Player player) {
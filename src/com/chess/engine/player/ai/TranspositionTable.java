@@ -0,0 +1,116 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+
+import java.util.Arrays;
+
+/**
+ * Remembers search results by Zobrist key so transpositions are searched once, and so every
+ * search thread can share what the others found. Entries are packed into a single long and
+ * stored next to the key XORed with that long; a write torn by another thread fails the check
+ * and reads as a miss, so no locks are needed. Keys map to a bucket of two entries: the first
+ * keeps the deepest result of the current search, the second always takes the latest store.
+ */
+public final class TranspositionTable {
+
+    public static final long NO_ENTRY = 0L;
+
+    // a bound of zero never gets stored, so an empty slot can't pass for an entry
+    public static final int UPPER_BOUND = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private static final int MOVE_SHIFT = 0;
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int AGE_SHIFT = 58;
+    private static final long MOVE_MASK = 0xFFFFL;
+    private static final long SCORE_MASK = 0xFFFFFFFFL;
+    private static final long DEPTH_MASK = 0xFFL;
+    private static final long BOUND_MASK = 0x3L;
+    private static final long AGE_MASK = 0x3FL;
+    private static final int BYTES_PER_ENTRY = 16;
+    // keeps the power of two size within what an array index can reach
+    private static final int MAX_ENTRIES = 1 << 30;
+
+    private final long[] checks;
+    private final long[] data;
+    private final int bucketMask;
+    private volatile int age;
+
+    public TranspositionTable(final int sizeInMegabytes) {
+        final long requestedEntries = ((long) sizeInMegabytes << 20) / BYTES_PER_ENTRY;
+        final int entries = (int) Long.highestOneBit(Math.max(2, Math.min(MAX_ENTRIES, requestedEntries)));
+        this.checks = new long[entries];
+        this.data = new long[entries];
+        this.bucketMask = entries - 2;
+    }
+
+    // ages out the previous search's entries so they lose their slots to the new search's
+    public void newSearch() {
+        this.age = (this.age + 1) & (int) AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(this.checks, 0L);
+        Arrays.fill(this.data, 0L);
+    }
+
+    /**
+     * Returns the packed entry stored for the key, or {@link #NO_ENTRY}. Use the static getters
+     * to unpack it.
+     */
+    public long probe(final long zobristKey) {
+        final int bucket = (int) zobristKey & this.bucketMask;
+        for (int index = bucket; index < bucket + 2; index++) {
+            final long entry = this.data[index];
+            if ((this.checks[index] ^ entry) == zobristKey && getBound(entry) != 0) {
+                return entry;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    public void store(final long zobristKey, final int depth, final int bound, final int score, final int move) {
+        final int bucket = (int) zobristKey & this.bucketMask;
+        final long deepest = this.data[bucket];
+        final boolean sameKey = (this.checks[bucket] ^ deepest) == zobristKey;
+        // keep the old hash move when a re-search of the same position didn't find one
+        final int storedMove = move == MoveEncoding.NO_MOVE && sameKey ? getMove(deepest) : move;
+        final long entry = pack(depth, bound, score, storedMove);
+        final int index = sameKey
+                || getAge(deepest) != this.age
+                || depth >= getDepth(deepest) ? bucket : bucket + 1;
+        this.data[index] = entry;
+        this.checks[index] = zobristKey ^ entry;
+    }
+
+    private long pack(final int depth, final int bound, final int score, final int move) {
+        return ((move & MOVE_MASK) << MOVE_SHIFT)
+                | ((score & SCORE_MASK) << SCORE_SHIFT)
+                | ((depth & DEPTH_MASK) << DEPTH_SHIFT)
+                | ((bound & BOUND_MASK) << BOUND_SHIFT)
+                | ((this.age & AGE_MASK) << AGE_SHIFT);
+    }
+
+    public static int getMove(final long entry) {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK);
+    }
+
+    public static int getScore(final long entry) {
+        return (int) (entry >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(final long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+    }
+
+    public static int getBound(final long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+    }
+
+    private static int getAge(final long entry) {
+        return (int) ((entry >>> AGE_SHIFT) & AGE_MASK);
+    }
+}
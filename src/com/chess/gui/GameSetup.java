@@ -2,6 +2,7 @@
 package com.chess.gui;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.board.Position;
 import com.chess.engine.player.Player;
 import com.chess.gui.Table.PlayerType;
 
@@ -47,7 +48,7 @@ class GameSetup extends JDialog {
         myPanel.add(blackComputerButton);
 
         myPanel.add(new JLabel("Search"));
-        this.searchDepthSpinner = addLabeledSpinner(myPanel, "Search Depth", new SpinnerNumberModel(6, 0, Integer.MAX_VALUE, 1));
+        this.searchDepthSpinner = addLabeledSpinner(myPanel, "Search Depth", new SpinnerNumberModel(6, 1, Position.MAX_PLY - 1, 1));
 
         final JButton cancelButton = new JButton("Cancel");
         final JButton okButton = new JButton("OK");
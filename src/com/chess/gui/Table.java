@@ -7,7 +7,6 @@ import com.chess.engine.board.Tile;
 import com.chess.engine.pieces.Piece;
 import com.chess.engine.player.MoveTransition;
 import com.chess.engine.player.ai.MiniMax;
-import com.chess.engine.player.ai.MoveStrategy;
 import com.google.common.collect.Lists;
 
 import javax.imageio.ImageIO;
@@ -32,12 +31,18 @@ public class Table extends Observable {
     private static final Dimension OUTER_FRAME_DIMENSION = new Dimension(600, 600);
     private static final Dimension BOARD_PANEL_DIMENSION = new Dimension(400, 350);
     private static final Dimension TILE_PANEL_DIMENSION = new Dimension(10, 10);
+    private static final int DEFAULT_SEARCH_DEPTH = 6;
+    private static final long SOFT_TIME_LIMIT_MILLIS = 2000;
+    private static final long HARD_TIME_LIMIT_MILLIS = 8000;
     private final JFrame gameFrame;
     private final GameHistoryPanel gameHistoryPanel;
     private final TakenPiecesPanel takenPiecesPanel;
     private final MoveLog moveLog;
     private final GameSetup gameSetup;
     private final BoardPanel boardPanel;
+    // kept for the whole game so its hash table carries over from one move to the next
+    private final MiniMax miniMax;
+    private AIThinkTank thinkTank;
     private Board chessBoard;
     private Tile sourceTile;
     private Tile destinationTile;
@@ -63,6 +68,7 @@ public class Table extends Observable {
         this.gameHistoryPanel = new GameHistoryPanel();
         this.takenPiecesPanel = new TakenPiecesPanel();
         this.moveLog = new MoveLog();
+        this.miniMax = new MiniMax(DEFAULT_SEARCH_DEPTH, SOFT_TIME_LIMIT_MILLIS, HARD_TIME_LIMIT_MILLIS);
         this.addObserver(new TableGameAIWatcher());
         this.gameSetup = new GameSetup(this.gameFrame, true);
         this.boardDirection = BoardDirection.NORMAL;
@@ -91,6 +97,23 @@ public class Table extends Observable {
         return chessBoard;
     }
 
+    private MiniMax getMiniMax() {
+        return this.miniMax;
+    }
+
+    private void newGame() {
+        // the old game's search must neither play its move on the new board nor race the table reset
+        if (this.thinkTank != null && !this.thinkTank.isDone()) {
+            this.thinkTank.cancel(false);
+            this.miniMax.stop();
+        }
+        this.thinkTank = null;
+        this.miniMax.reset();
+        this.chessBoard = Board.createStandardBoard();
+        this.computerMove = null;
+        show();
+    }
+
     private JMenuBar createMenuBar() {
         final JMenuBar tableMenuBar = new JMenuBar();
         tableMenuBar.add(createFileMenu());
@@ -101,6 +124,16 @@ public class Table extends Observable {
 
     private JMenu createFileMenu() {
         final JMenu fileMenu = new JMenu("File");
+        final JMenuItem newGameMenuItem = new JMenuItem("New Game");
+        newGameMenuItem.addActionListener(
+                new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        Table.get().newGame();
+                    }
+                });
+        fileMenu.add(newGameMenuItem);
+
         final JMenuItem openPGN = new JMenuItem("Load PGN File");
         openPGN.addActionListener(
                 new ActionListener() {
@@ -181,6 +214,7 @@ public class Table extends Observable {
             !Table.get().getGameBoard().getCurrentPlayer().isInCheckMate() &&
             !Table.get().getGameBoard().getCurrentPlayer().isInStaleMate()) {
                 final AIThinkTank thinkTank = new AIThinkTank();
+                Table.get().thinkTank = thinkTank;
                 thinkTank.execute();
             }
 
@@ -227,13 +261,16 @@ public class Table extends Observable {
 
         @Override
         protected Move doInBackground() throws Exception {
-            final MoveStrategy miniMax = new MiniMax(6);
-            final Move bestMove = miniMax.execute(Table.get().getGameBoard());
+            final Move bestMove = Table.get().getMiniMax().execute(Table.get().getGameBoard(),
+                    Table.get().getGameSetup().getSearchDepth());
             return bestMove;
         }
 
         @Override
         public void done() {
+            if (isCancelled()) {
+                return;
+            }
             try {
                 final Move bestMove = get();
                 Table.get().updateComputerMove(bestMove);
@@ -0,0 +1,145 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Position;
+import com.chess.engine.pieces.*;
+
+public class FenUtilities {
+
+    private FenUtilities() {
+        throw new RuntimeException("Do not instantiate fen utilities");
+    }
+
+    public static Board createGameFromFEN(final String fenString) {
+        final String[] fenPartitions = fenString.trim().split(" ");
+        final String castlingRights = fenPartitions.length > 2 ? fenPartitions[2] : "-";
+        final Board.Builder builder = new Board.Builder();
+        int square = 0;
+        for (final char fenChar : fenPartitions[0].toCharArray()) {
+            if (fenChar == '/') {
+                continue;
+            }
+            if (Character.isDigit(fenChar)) {
+                square += fenChar - '0';
+                continue;
+            }
+            builder.setPiece(createPiece(fenChar, square, castlingRights));
+            square++;
+        }
+        if (square != BoardUtils.NUM_TILES) {
+            throw new RuntimeException("Invalid FEN string " + fenString);
+        }
+        final Alliance moveMaker = moveMaker(fenPartitions.length > 1 ? fenPartitions[1] : "w");
+        builder.setMoveMaker(moveMaker);
+        if (fenPartitions.length > 3 && !fenPartitions[3].equals("-")) {
+            // the pawn that just jumped sits one rank past the en passant square
+            final int enPassantSquare = BoardUtils.getCoordinateAtPosition(fenPartitions[3]);
+            final Piece jumpedPawn = builder.getPiece(enPassantSquare + moveMaker.getOppositeDirection() * BoardUtils.NUM_TILES_PER_ROW);
+            if (jumpedPawn instanceof Pawn && jumpedPawn.getPieceAlliance() != moveMaker) {
+                builder.setEnPassantSquare(enPassantSquare);
+            }
+        }
+        return builder.build();
+    }
+
+    public static String createFENFromGame(final Board board) {
+        return calculateBoardText(board) + " " +
+                (board.getCurrentPlayer().getAlliance().isWhite() ? "w" : "b") + " " +
+                calculateCastleText(board) + " " +
+                calculateEnPassantSquare(board) + " " +
+                "0 1";
+    }
+
+    private static Piece createPiece(final char fenChar, final int square, final String castlingRights) {
+        final Alliance alliance = Character.isUpperCase(fenChar) ? Alliance.WHITE : Alliance.BLACK;
+        switch (Character.toUpperCase(fenChar)) {
+            case 'P':
+                return Pawn.create(alliance, square, alliance.isWhite() ? BoardUtils.SECOND_RANK[square] : BoardUtils.SEVENTH_RANK[square]);
+            case 'N':
+                return Knight.create(alliance, square, false);
+            case 'B':
+                return Bishop.create(alliance, square, false);
+            case 'R':
+                return Rook.create(alliance, square, isCastlingRook(alliance, square, castlingRights));
+            case 'Q':
+                return Queen.create(alliance, square, false);
+            case 'K':
+                return King.create(alliance, square, isCastlingKing(alliance, square, castlingRights));
+            default:
+                throw new RuntimeException("Invalid FEN piece " + fenChar);
+        }
+    }
+
+    private static boolean isCastlingKing(final Alliance alliance, final int square, final String castlingRights) {
+        return alliance.isWhite()
+                ? square == 60 && (castlingRights.contains("K") || castlingRights.contains("Q"))
+                : square == 4 && (castlingRights.contains("k") || castlingRights.contains("q"));
+    }
+
+    private static boolean isCastlingRook(final Alliance alliance, final int square, final String castlingRights) {
+        return alliance.isWhite()
+                ? (square == 63 && castlingRights.contains("K")) || (square == 56 && castlingRights.contains("Q"))
+                : (square == 7 && castlingRights.contains("k")) || (square == 0 && castlingRights.contains("q"));
+    }
+
+    private static Alliance moveMaker(final String moveMakerString) {
+        if (moveMakerString.equals("w")) {
+            return Alliance.WHITE;
+        } else if (moveMakerString.equals("b")) {
+            return Alliance.BLACK;
+        }
+        throw new RuntimeException("Invalid FEN side to move " + moveMakerString);
+    }
+
+    private static String calculateBoardText(final Board board) {
+        final StringBuilder builder = new StringBuilder();
+        int emptySquares = 0;
+        for (int square = 0; square < BoardUtils.NUM_TILES; square++) {
+            final Piece piece = board.getPiece(square);
+            if (piece == null) {
+                emptySquares++;
+            } else {
+                if (emptySquares > 0) {
+                    builder.append(emptySquares);
+                    emptySquares = 0;
+                }
+                builder.append(board.getTile(square).toString());
+            }
+            if ((square + 1) % BoardUtils.NUM_TILES_PER_ROW == 0) {
+                if (emptySquares > 0) {
+                    builder.append(emptySquares);
+                    emptySquares = 0;
+                }
+                if (square != BoardUtils.NUM_TILES - 1) {
+                    builder.append("/");
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String calculateCastleText(final Board board) {
+        final int castlingRights = board.getCastlingRights();
+        final StringBuilder builder = new StringBuilder();
+        if ((castlingRights & BoardUtils.WHITE_KING_SIDE_CASTLE) != 0) {
+            builder.append("K");
+        }
+        if ((castlingRights & BoardUtils.WHITE_QUEEN_SIDE_CASTLE) != 0) {
+            builder.append("Q");
+        }
+        if ((castlingRights & BoardUtils.BLACK_KING_SIDE_CASTLE) != 0) {
+            builder.append("k");
+        }
+        if ((castlingRights & BoardUtils.BLACK_QUEEN_SIDE_CASTLE) != 0) {
+            builder.append("q");
+        }
+        return builder.length() == 0 ? "-" : builder.toString();
+    }
+
+    private static String calculateEnPassantSquare(final Board board) {
+        final int enPassantSquare = board.getEnPassantSquare();
+        return enPassantSquare == Position.EMPTY ? "-" : BoardUtils.getPositionAtCoordinate(enPassantSquare);
+    }
+}
@@ -1,19 +1,28 @@
 package com.tests.chess.engine.board;
 
+import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Queen;
 import com.chess.engine.player.MoveTransition;
 import com.chess.engine.player.ai.MiniMax;
 import com.chess.engine.player.ai.MoveStrategy;
+import com.chess.pgn.FenUtilities;
 import com.google.common.collect.Iterables;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.chess.engine.board.Move.MoveFactory.*;
 import static org.junit.Assert.*;
@@ -66,7 +75,7 @@ public class BoardTest {
         final Board board = Board.createStandardBoard();
         // System.out.println(board.toString());
         // assertEquals(board.getCurrentPlayer().getLegalMoves().size(), 20);
-        Set<String> boards = new HashSet<>();
+        Set<Long> boards = new HashSet<>();
         for (Move m : board.getCurrentPlayer().getLegalMoves()) {
             MoveTransition transition = board.getCurrentPlayer().makeMove(m);
             if (transition.getMoveStatus().isDone()) {
@@ -83,7 +92,7 @@ public class BoardTest {
                                     MoveTransition transition3 = d.getCurrentPlayer().makeMove(p);
                                     if (transition3.getMoveStatus().isDone()) {
                                         Board e = transition3.getBoard();
-                                        // boards.add(e.toString());
+                                        boards.add(e.getZobristKey());
                                         // for(Move q : e.getCurrentPlayer().getLegalMoves()) {
                                         // MoveTransition transition4 =
                                         // e.getCurrentPlayer().makeMove(q);
@@ -156,4 +165,96 @@ public class BoardTest {
 
         assertEquals(aiMove, bestMove);
     }
+
+    @Test
+    public void movesDoNotRetainBoards() {
+        final List<Class<?>> moveClasses = new ArrayList<>();
+        moveClasses.add(Move.class);
+        for (final Class<?> nestedClass : Move.class.getDeclaredClasses()) {
+            if (Move.class.isAssignableFrom(nestedClass)) {
+                moveClasses.add(nestedClass);
+            }
+        }
+        for (final Class<?> moveClass : moveClasses) {
+            for (final Field field : moveClass.getDeclaredFields()) {
+                assertFalse(moveClass.getSimpleName() + "." + field.getName(),
+                        Board.class.isAssignableFrom(field.getType()));
+            }
+        }
+    }
+
+    @Test
+    public void builderWritesDoNotReachBuiltBoard() {
+        final Board.Builder builder = new Board.Builder();
+        builder.setPiece(King.create(Alliance.BLACK, 4));
+        builder.setPiece(King.create(Alliance.WHITE, 60));
+        builder.setMoveMaker(Alliance.WHITE);
+        final Board board = builder.build();
+        final int whiteMaterial = board.getMaterial(Alliance.WHITE);
+        builder.setPiece(Queen.create(Alliance.WHITE, 59));
+        assertNull(board.getPiece(59));
+        assertEquals(whiteMaterial, board.getMaterial(Alliance.WHITE));
+        assertEquals(0, board.getPieceCount(Alliance.WHITE, Piece.PieceType.QUEEN));
+        assertNotNull(builder.build().getPiece(59));
+    }
+
+    @Test
+    public void castlingChecksTheKingsPathOnly() {
+        // the e2 pawn covers f1, which the king has to cross
+        final Board pawnGuardsPath = FenUtilities.createGameFromFEN("4k3/8/8/8/8/8/4p3/4K2R w K - 0 1");
+        assertNull(findCastle(pawnGuardsPath));
+        // the d3 bishop covers b1, which only the rook crosses
+        final Board bishopGuardsRookPath = FenUtilities.createGameFromFEN("4k3/8/8/8/8/3b4/8/R3K3 w Q - 0 1");
+        assertNotNull(findCastle(bishopGuardsRookPath));
+    }
+
+    @Test
+    public void stoppedSearchReturnsCompletedIterationMove() throws Exception {
+        final Board board = Board.createStandardBoard();
+        final MiniMax miniMax = new MiniMax(20);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Move> result = executorService.submit(() -> miniMax.execute(board));
+            // a stop only reaches a search in progress, so keep asking until this one gives up
+            while(!result.isDone()) {
+                miniMax.stop();
+                Thread.sleep(10);
+            }
+            final Move move = result.get();
+            assertTrue(board.getCurrentPlayer().makeMove(move).getMoveStatus().isDone());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void boardEqualityComparesPositions() {
+        final Board board = Board.createStandardBoard();
+        // the knights go out and come back, so only their first move flags differ from the start
+        final Board transposed = play(board, "g1", "f3", "g8", "f6", "f3", "g1", "f6", "g8");
+        assertEquals(board, transposed);
+        assertEquals(board.hashCode(), transposed.hashCode());
+        assertNotEquals(board, play(board, "g1", "f3", "g8", "f6"));
+        assertFalse(new HashSet<>(Collections.singletonList(board)).add(transposed));
+    }
+
+    private static Board play(final Board board, final String... squares) {
+        Board current = board;
+        for (int i = 0; i < squares.length; i += 2) {
+            final MoveTransition transition = current.getCurrentPlayer().makeMove(Move.MoveFactory.createMove(current,
+                    BoardUtils.getCoordinateAtPosition(squares[i]), BoardUtils.getCoordinateAtPosition(squares[i + 1])));
+            assertTrue(transition.getMoveStatus().isDone());
+            current = transition.getBoard();
+        }
+        return current;
+    }
+
+    private static Move findCastle(final Board board) {
+        for (final Move move : board.getCurrentPlayer().getLegalMoves()) {
+            if (move.isCastlingMove()) {
+                return move;
+            }
+        }
+        return null;
+    }
 }
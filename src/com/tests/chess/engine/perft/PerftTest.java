@@ -0,0 +1,98 @@
+package com.tests.chess.engine.perft;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Position;
+import com.chess.engine.perft.Perft;
+import com.chess.engine.perft.PerftHashTable;
+import com.chess.engine.perft.PerftPosition;
+import com.chess.pgn.FenUtilities;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class PerftTest {
+
+    // keeps each position well under a second
+    private static final long MAX_NODES = 1000000L;
+    // the Board model is much slower per node, so it stops at a shallower depth
+    private static final int MAX_BOARD_MODEL_DEPTH = 3;
+
+    /*
+     * The Board model only promotes to a queen, so positions with promotions in reach count fewer
+     * nodes than the published figures; these are its own counts, indexed by depth - 1. The search
+     * Position generates under-promotions and matches the published counts everywhere.
+     */
+    private static final Map<PerftPosition, long[]> BOARD_MODEL_COUNTS = new EnumMap<>(PerftPosition.class);
+    static {
+        BOARD_MODEL_COUNTS.put(PerftPosition.POSITION_4, new long[] {6L, 228L, 8087L});
+        BOARD_MODEL_COUNTS.put(PerftPosition.POSITION_5, new long[] {41L, 1373L, 54007L});
+    }
+
+    @Test
+    public void initialBoardModel() {
+        final Board board = Board.createStandardBoard();
+        assertEquals(20L, Perft.perft(board, 1));
+        assertEquals(400L, Perft.perft(board, 2));
+        assertEquals(8902L, Perft.perft(board, 3));
+    }
+
+    @Test
+    public void referencePositionsBoardModel() {
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            final Board board = FenUtilities.createGameFromFEN(perftPosition.getFen());
+            final long[] boardModelCounts = BOARD_MODEL_COUNTS.get(perftPosition);
+            for (int depth = 1; depth <= MAX_BOARD_MODEL_DEPTH; depth++) {
+                final long expected = boardModelCounts != null
+                        ? boardModelCounts[depth - 1]
+                        : perftPosition.getNodeCount(depth);
+                assertEquals(perftPosition + " depth " + depth, expected, Perft.perft(board, depth));
+            }
+        }
+    }
+
+    @Test
+    public void referencePositions() {
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            final Position position = new Position(FenUtilities.createGameFromFEN(perftPosition.getFen()));
+            for (int depth = 1; depth <= perftPosition.getMaxDepth() && perftPosition.getNodeCount(depth) <= MAX_NODES; depth++) {
+                assertEquals(perftPosition + " depth " + depth, perftPosition.getNodeCount(depth), Perft.perft(position, depth));
+            }
+        }
+    }
+
+    @Test
+    public void divideSumsToPerft() {
+        final Position position = new Position(FenUtilities.createGameFromFEN(PerftPosition.KIWIPETE.getFen()));
+        final Map<String, Long> divide = Perft.divide(position, 3);
+        assertEquals(48, divide.size());
+        long nodes = 0L;
+        for (final long subtreeNodes : divide.values()) {
+            nodes += subtreeNodes;
+        }
+        assertEquals(PerftPosition.KIWIPETE.getNodeCount(3), nodes);
+    }
+
+    @Test
+    public void parallelWithHashTable() {
+        final Board board = FenUtilities.createGameFromFEN(PerftPosition.POSITION_4.getFen());
+        final PerftHashTable hashTable = new PerftHashTable(16);
+        assertEquals(PerftPosition.POSITION_4.getNodeCount(4), Perft.parallelPerft(board, 4, 4, hashTable));
+        // the second run is answered almost entirely from the table
+        assertEquals(PerftPosition.POSITION_4.getNodeCount(4), Perft.parallelPerft(board, 4, 4, hashTable));
+    }
+
+    @Test
+    public void fenRoundTrip() {
+        for (final PerftPosition perftPosition : PerftPosition.values()) {
+            final String fen = FenUtilities.createFENFromGame(FenUtilities.createGameFromFEN(perftPosition.getFen()));
+            final String[] expected = perftPosition.getFen().split(" ");
+            final String[] actual = fen.split(" ");
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected[i], actual[i]);
+            }
+        }
+    }
+}